@@ -0,0 +1,139 @@
+package maze;
+
+/**
+ * Class which stores a single passability bit per cell in a bitmap.
+ * Only the entrance and exit need more than one bit, so they are kept as two indices
+ * and every other navigable cell is a corridor. Neighbour masks are worked out from the bits
+ * of the neighbouring cells when they are asked for, so the grid takes exactly one bit per cell.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class BitGrid implements CellGrid {
+
+	private static final byte CORRIDOR_CODE = (byte) Tile.Type.CORRIDOR.ordinal();
+	private static final byte ENTRANCE_CODE = (byte) Tile.Type.ENTRANCE.ordinal();
+	private static final byte EXIT_CODE = (byte) Tile.Type.EXIT.ordinal();
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	private CellLayout layout;
+	private int width;
+	private int rows;
+	private long[] bits;
+	private int entrance;
+	private int exit;
+
+	/**
+	 * Constructor which intialises a grid of walls
+	 * 
+	 * @param layout_in layout used to find the neighbours of a cell
+	 * @param width_in number of cells in each row
+	 * @param rows_in number of rows
+	 */
+	BitGrid(CellLayout layout_in, int width_in, int rows_in) {
+		layout = layout_in;
+		width = width_in;
+		rows = rows_in;
+		bits = new long[(int) ((layout.cellCount(rows) + 63) >>> 6)];
+		entrance = -1;
+		exit = -1;
+	}
+
+	public byte get(int index) {
+		if (index == entrance) {
+			return ENTRANCE_CODE;
+		}
+		else if (index == exit) {
+			return EXIT_CODE;
+		}
+		return isNavigable(index) ? CORRIDOR_CODE : WALL_CODE;
+	}
+
+	public void set(int index, byte code) {
+		if (index == entrance) {
+			entrance = -1;
+		}
+		if (index == exit) {
+			exit = -1;
+		}
+		if (code == ENTRANCE_CODE) {
+			entrance = index;
+		}
+		else if (code == EXIT_CODE) {
+			exit = index;
+		}
+
+		if (code == WALL_CODE) {
+			bits[index >>> 6] &= ~(1L << index);
+		}
+		else {
+			bits[index >>> 6] |= 1L << index;
+		}
+	}
+
+	public void fill(int index, int count, byte code) {
+		if (code == ENTRANCE_CODE || code == EXIT_CODE || count < 64) {
+			for (int i = index; i < index + count; i++) {
+				set(i, code);
+			}
+			return;
+		}
+		int end = index + count;
+		if (entrance >= index && entrance < end) {
+			entrance = -1;
+		}
+		if (exit >= index && exit < end) {
+			exit = -1;
+		}
+		boolean navigable = code != WALL_CODE;
+		for (int word = index >>> 6; word <= (end - 1) >>> 6; word++) {
+			long range = -1L;
+			if (word == index >>> 6) {
+				range &= -1L << index;
+			}
+			if (word == (end - 1) >>> 6) {
+				range &= -1L >>> (63 - ((end - 1) & 63));
+			}
+			bits[word] = navigable ? bits[word] | range : bits[word] & ~range;
+		}
+	}
+
+	public boolean isNavigable(int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	public int getMask(int index) {
+		int x = layout.x(index);
+		int row = layout.row(index);
+		int mask = 0;
+		if (row > 0 && isNavigable(layout.adjacent(index, Maze.Direction.NORTH))) {
+			mask |= 1 << Maze.Direction.NORTH.ordinal();
+		}
+		if (x + 1 < width && isNavigable(layout.adjacent(index, Maze.Direction.EAST))) {
+			mask |= 1 << Maze.Direction.EAST.ordinal();
+		}
+		if (row + 1 < rows && isNavigable(layout.adjacent(index, Maze.Direction.SOUTH))) {
+			mask |= 1 << Maze.Direction.SOUTH.ordinal();
+		}
+		if (x > 0 && isNavigable(layout.adjacent(index, Maze.Direction.WEST))) {
+			mask |= 1 << Maze.Direction.WEST.ordinal();
+		}
+		return mask;
+	}
+
+	public void setMask(int index, int mask) {
+		// Masks are worked out from the neighbouring cells
+	}
+
+	public boolean storesMasks() {
+		return false;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return false;
+	}
+
+	public void close() {
+		// Nothing to release, the bitmap is collected with the maze
+	}
+
+}
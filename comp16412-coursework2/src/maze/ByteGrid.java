@@ -0,0 +1,63 @@
+package maze;
+
+/**
+ * Class which stores one byte per cell, holding the type code of the cell in the low two bits
+ * and the mask of its navigable neighbours in the four bits above
+ * 
+ * @author Joshwin Sundarraj
+ */
+class ByteGrid implements CellGrid {
+
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	private byte[] cells;
+
+	/**
+	 * Constructor which intialises a grid of walls
+	 * 
+	 * @param cellCount number of cells in the grid
+	 */
+	ByteGrid(int cellCount) {
+		cells = new byte[cellCount];
+		java.util.Arrays.fill(cells, WALL_CODE);
+	}
+
+	public byte get(int index) {
+		return (byte) (cells[index] & 3);
+	}
+
+	public void set(int index, byte code) {
+		cells[index] = (byte) ((cells[index] & ~3) | code);
+	}
+
+	public void fill(int index, int count, byte code) {
+		for (int i = index; i < index + count; i++) {
+			cells[i] = (byte) ((cells[i] & ~3) | code);
+		}
+	}
+
+	public boolean isNavigable(int index) {
+		return (cells[index] & 3) != WALL_CODE;
+	}
+
+	public int getMask(int index) {
+		return (cells[index] >>> 2) & 0xF;
+	}
+
+	public void setMask(int index, int mask) {
+		cells[index] = (byte) ((cells[index] & 3) | (mask << 2));
+	}
+
+	public boolean storesMasks() {
+		return true;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return true;
+	}
+
+	public void close() {
+		// Nothing to release, the array is collected with the maze
+	}
+
+}
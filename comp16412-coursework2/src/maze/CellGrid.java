@@ -0,0 +1,59 @@
+package maze;
+
+/**
+ * Defines the storage behind a maze, which holds the type code of every cell
+ * and the mask of its navigable neighbours, and which can be written as well as read.
+ * Cells are addressed by index as given by the layout of the maze, row 0 being the first line of the maze file.
+ * 
+ * @author Joshwin Sundarraj
+ */
+interface CellGrid extends CellView {
+
+	/**
+	 * Method which sets the type code of a cell
+	 * 
+	 * @param index index of the cell
+	 * @param code the type code, the ordinal of the tile type
+	 */
+	void set(int index, byte code);
+
+	/**
+	 * Method which sets the type code of a range of cells.
+	 * Grids which can fill a range faster than one cell at a time override this.
+	 * 
+	 * @param index index of the first cell
+	 * @param count number of cells
+	 * @param code the type code, the ordinal of the tile type
+	 */
+	default void fill(int index, int count, byte code) {
+		for (int i = index; i < index + count; i++) {
+			set(i, code);
+		}
+	}
+
+	/**
+	 * Method which stores the navigable neighbour mask of a cell
+	 * 
+	 * @param index index of the cell
+	 * @param mask the 4-bit mask
+	 */
+	void setMask(int index, int mask);
+
+	/**
+	 * Method which returns whether the grid stores the masks it is given.
+	 * Grids which work masks out from the cells themselves return false,
+	 * so the maze does not need to compute them.
+	 * 
+	 * @return returns true if setMask stores the mask
+	 */
+	boolean storesMasks();
+
+	/**
+	 * Method which returns whether different cells of the grid can be set from different threads at once.
+	 * Grids which pack several cells into one word, or which move cells between memory and disk, return false.
+	 * 
+	 * @return returns true if cells can be set concurrently
+	 */
+	boolean allowsConcurrentWrites();
+
+}
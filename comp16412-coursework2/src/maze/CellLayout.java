@@ -0,0 +1,64 @@
+package maze;
+
+/**
+ * Defines how the cells of a maze are ordered in its grid,
+ * by converting between a cell index and the column and row of the cell.
+ * Rows are counted from the first line of the maze file.
+ * 
+ * @author Joshwin Sundarraj
+ */
+interface CellLayout {
+
+	/**
+	 * Method which returns the index of the cell at a column and row
+	 * 
+	 * @param x the column of the cell
+	 * @param row the row of the cell
+	 * @return returns the index of the cell
+	 */
+	int index(int x, int row);
+
+	/**
+	 * Method which returns the column of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the column of the cell
+	 */
+	int x(int index);
+
+	/**
+	 * Method which returns the row of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the row of the cell
+	 */
+	int row(int index);
+
+	/**
+	 * Method which returns the index of the neighbour of a cell.
+	 * The neighbour must be inside the maze, so no bounds are checked.
+	 * 
+	 * @param index index of the cell
+	 * @param d direction of the neighbour
+	 * @return returns the index of the neighbour
+	 */
+	int adjacent(int index, Maze.Direction d);
+
+	/**
+	 * Method which returns the number of indices needed for a maze of a given height,
+	 * including any padding cells the layout needs beyond the edges of the maze
+	 * 
+	 * @param height number of rows
+	 * @return returns the number of cells in the grid
+	 */
+	long cellCount(int height);
+
+	/**
+	 * Method which returns whether the cells of a row have consecutive indices,
+	 * so a run of cells along a row can be written as one range of the grid
+	 * 
+	 * @return returns true if index(x + 1, row) is always index(x, row) + 1
+	 */
+	boolean contiguousRows();
+
+}
@@ -0,0 +1,42 @@
+package maze;
+
+/**
+ * Defines read-only access to the cells of a maze, which is all a view onto another maze's cells offers.
+ * Cells are addressed by index as given by the layout of the maze, row 0 being the first line of the maze file.
+ * Storage which can be written implements CellGrid.
+ * 
+ * @author Joshwin Sundarraj
+ */
+interface CellView {
+
+	/**
+	 * Method which returns the type code of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the type code, the ordinal of the tile type
+	 */
+	byte get(int index);
+
+	/**
+	 * Method which checks whether a cell could be included in a route
+	 * 
+	 * @param index index of the cell
+	 * @return returns true if the cell is not a wall
+	 */
+	boolean isNavigable(int index);
+
+	/**
+	 * Method which returns the navigable neighbour mask of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the 4-bit mask, bit 1 &lt;&lt; d.ordinal() set when the neighbour in direction d is navigable
+	 */
+	int getMask(int index);
+
+	/**
+	 * Method which releases the memory held by the grid.
+	 * The grid must not be used afterwards.
+	 */
+	void close();
+
+}
@@ -0,0 +1,144 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class which parses a mapped maze file on a ForkJoin pool, the common pool unless another is given.
+ * The file is split into chunks, each ending just after the first line feed at or past its nominal length,
+ * so a split which falls in the middle of a row is moved to the end of that row. The lines in each chunk are counted
+ * to find the row each chunk starts on, then every chunk is scanned into the grid by its own RowScanner.
+ * The counts of the chunks are added together in file order, and the error reported is the first one in the file.
+ *
+ * @author Joshwin Sundarraj
+ */
+class ChunkedParser {
+
+	/**
+	 * Files shorter than this are scanned on the calling thread, since splitting them costs more than it saves
+	 */
+	static final long MIN_PARALLEL_LENGTH = 1 << 23;
+
+	/**
+	 * Class which counts the lines of one chunk of the file, or scans them once it has been given a scanner
+	 */
+	private static class Chunk extends RecursiveAction {
+
+		private ByteBuffer[] buffers;
+		private long start;
+		private long end;
+		private int lines;
+		private RowScanner scanner;
+		private InvalidMazeException error;
+
+		/**
+		 * Constructor which intialises the part of the file the chunk covers
+		 * 
+		 * @param buffers_in the contents of the file in order
+		 * @param start_in position of the first byte of the chunk
+		 * @param end_in position after the last byte of the chunk
+		 */
+		Chunk(ByteBuffer[] buffers_in, long start_in, long end_in) {
+			buffers = buffers_in;
+			start = start_in;
+			end = end_in;
+		}
+
+		protected void compute() {
+			if (scanner == null) {
+				lines = RowScanner.countLines(buffers, start, end);
+				return;
+			}
+			try {
+				scanner.scan(buffers, start, end);
+			} catch (InvalidMazeException e) {
+				error = e;
+			}
+		}
+	}
+
+	/**
+	 * Method which returns whether a file should be parsed in parallel into a grid on a given pool
+	 *
+	 * @param grid the grid the file will be parsed into
+	 * @param length length of the file in bytes
+	 * @param minLength files shorter than this are not split
+	 * @param pool the pool the file would be parsed on
+	 * @return returns true if the grid can be written from several threads, the pool has more than one
+	 * 			thread and the file is at least minLength long
+	 */
+	static boolean worthSplitting(CellGrid grid, long length, long minLength, ForkJoinPool pool) {
+		return grid.allowsConcurrentWrites() && length >= minLength && pool.getParallelism() > 1;
+	}
+
+	/**
+	 * Method which parses the whole of a mapped file into a grid on a given pool.
+	 * Chunks are at least an eighth of minLength long, so a small minLength splits even a short file
+	 * into many chunks.
+	 *
+	 * @param buffers the contents of the file in order, each but the last Integer.MAX_VALUE bytes long
+	 * @param length length of the file in bytes
+	 * @param grid the grid the cells are written to
+	 * @param layout the layout of the cells in the grid
+	 * @param width number of tiles in each row
+	 * @param maxRows number of rows the grid has room for
+	 * @param minLength the length below which files are not split, which sets the smallest chunk
+	 * @param pool the pool the chunks are parsed on
+	 * @return returns a scanner holding the counts of the whole file
+	 * @throws InvalidMazeException thrown when a line is not as long as the first line
+	 * 								or an invalid character is found
+	 */
+	static RowScanner parse(ByteBuffer[] buffers, long length, CellGrid grid, CellLayout layout,
+							int width, int maxRows, long minLength, ForkJoinPool pool) throws InvalidMazeException {
+		long chunkLength = Math.max(Math.max(1, minLength >>> 3), length / (pool.getParallelism() * 4L));
+		List<Chunk> chunks = split(buffers, length, chunkLength);
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+
+		long row = 0;
+		for (Chunk chunk : chunks) {
+			chunk.scanner = new RowScanner(grid, layout, width, (int) Math.min(row, maxRows), maxRows);
+			chunk.reinitialize();
+			row += chunk.lines;
+		}
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+
+		RowScanner total = new RowScanner(grid, layout, width, 0, maxRows);
+		for (int i = 0; i < chunks.size(); i++) {
+			Chunk chunk = chunks.get(i);
+			if (chunk.error != null) {
+				throw chunk.error;
+			}
+			if (i == chunks.size() - 1) {
+				chunk.scanner.finish();
+			}
+			total.add(chunk.scanner);
+		}
+		return total;
+	}
+
+	/**
+	 * Method which splits a file into chunks, each ending just after a line feed except the last
+	 *
+	 * @param buffers the contents of the file in order
+	 * @param length length of the file in bytes
+	 * @param chunkLength nominal length of each chunk
+	 * @return returns the chunks in file order
+	 */
+	private static List<Chunk> split(ByteBuffer[] buffers, long length, long chunkLength) {
+		List<Chunk> chunks = new ArrayList<Chunk>();
+		long start = 0;
+		while (start < length) {
+			long end = Math.min(length, start + chunkLength);
+			while (end < length && RowScanner.byteAt(buffers, end - 1) != '\n') {
+				end++;
+			}
+			chunks.add(new Chunk(buffers, start, end));
+			start = end;
+		}
+		return chunks;
+	}
+}
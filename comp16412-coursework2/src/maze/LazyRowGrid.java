@@ -0,0 +1,142 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Class which reads the rows of a mapped text maze file only when one of their cells is first used.
+ * The start of each row is looked up in a MazeIndex, and a row is decoded into its own array of type codes,
+ * so opening a maze costs nothing however large the file is, and only rows which are touched take up memory.
+ * Neighbour masks are worked out from the neighbouring cells.
+ *
+ * @author Joshwin Sundarraj
+ */
+class LazyRowGrid implements CellGrid {
+
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	private ByteBuffer[] contents;
+	private LongBuffer offsets;
+	private int width;
+	private int height;
+	private byte[][] rows;
+	private int loadedRows;
+	private long length;
+
+	/**
+	 * Constructor which intialises a grid with no rows read
+	 *
+	 * @param contents_in the contents of the maze file, mapped in order
+	 * @param offsets_in byte offset of the start of each row
+	 * @param width_in number of tiles in each row
+	 * @param height_in number of rows
+	 */
+	LazyRowGrid(ByteBuffer[] contents_in, LongBuffer offsets_in, int width_in, int height_in) {
+		contents = contents_in;
+		offsets = offsets_in;
+		width = width_in;
+		height = height_in;
+		rows = new byte[height][];
+		for (ByteBuffer buffer : contents) {
+			length += buffer.limit();
+		}
+	}
+
+	/**
+	 * Method which returns the type codes of a row, reading it from the file the first time it is used.
+	 * The row must still start and end at line separators, which catches a file edited since it was indexed
+	 * that moved the row.
+	 *
+	 * @param row the row
+	 * @return returns the type code of each cell in the row
+	 * @throws InvalidMazeException thrown when the row is no longer where the index says
+	 */
+	private byte[] row(int row) throws InvalidMazeException {
+		byte[] cells = rows[row];
+		if (cells == null) {
+			if (contents == null) {
+				throw new IllegalStateException("Maze has been closed");
+			}
+			cells = new byte[width];
+			long start = offsets.get(row);
+			if ((start > 0 && !isSeparator(start - 1)) || (start + width < length && !isSeparator(start + width))) {
+				throw new InvalidMazeException("Maze file has changed since it was indexed, open it again");
+			}
+			for (int x = 0; x < width; x++) {
+				cells[x] = Tile.codeFromChar((char) RowScanner.byteAt(contents, start + x));
+			}
+			rows[row] = cells;
+			loadedRows++;
+		}
+		return cells;
+	}
+
+	/**
+	 * Method which checks whether a byte of the file is a line separator
+	 *
+	 * @param position position of the byte
+	 * @return returns true if the byte is a line feed or carriage return
+	 */
+	private boolean isSeparator(long position) {
+		byte b = RowScanner.byteAt(contents, position);
+		return b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Method which returns how many rows have been read from the file
+	 *
+	 * @return returns the number of rows held in memory
+	 */
+	int getLoadedRows() {
+		return loadedRows;
+	}
+
+	public byte get(int index) {
+		return row(index / width)[index % width];
+	}
+
+	public void set(int index, byte code) {
+		row(index / width)[index % width] = code;
+	}
+
+	public boolean isNavigable(int index) {
+		return get(index) != WALL_CODE;
+	}
+
+	public int getMask(int index) {
+		int x = index % width;
+		int row = index / width;
+		int mask = 0;
+		if (row > 0 && isNavigable(index - width)) {
+			mask |= 1 << Maze.Direction.NORTH.ordinal();
+		}
+		if (x + 1 < width && isNavigable(index + 1)) {
+			mask |= 1 << Maze.Direction.EAST.ordinal();
+		}
+		if (row + 1 < height && isNavigable(index + width)) {
+			mask |= 1 << Maze.Direction.SOUTH.ordinal();
+		}
+		if (x > 0 && isNavigable(index - 1)) {
+			mask |= 1 << Maze.Direction.WEST.ordinal();
+		}
+		return mask;
+	}
+
+	public void setMask(int index, int mask) {
+		// Masks are worked out from the neighbouring cells
+	}
+
+	public boolean storesMasks() {
+		return false;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return false;
+	}
+
+	public void close() {
+		contents = null;
+		offsets = null;
+	}
+
+}
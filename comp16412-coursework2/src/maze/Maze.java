@@ -1,363 +1,1974 @@
-package maze;
-
-import java.util.*;
-import java.io.*;
-import java.io.FileNotFoundException;
-
-
-/**
- * Class which defines Maze and contains the Direction enumeration and coordinate class
- * 
- * @author Joshwin Sundarraj
- */
-public class Maze implements Serializable {
-
-	/**
-	 * Enumeration which defines all possible directions to traverse the maze
-	 */
-	public enum Direction {
-		NORTH,
-		EAST,
-		SOUTH,
-		WEST
-	}
-
-	/**
-	 * Class which defines positioning by using two integer values to form coordinates
-	 * 
-	 * @author Joshwin Sundarraj
-	 */
-	public class Coordinate implements Serializable{
-
-		private int x;
-		private int y;
-
-		/**
-		 * Constructor intialises the x & y postion
-		 * 
-		 * @param x_in the x position
-		 * @param y_in the y position
-		 */
-		public Coordinate(int x_in, int y_in) {
-			x = x_in;
-			y = y_in;
-		}
-		
-		/**
-		 * Method to return the x-position
-		 * 
-		 * @return integer value of x-position 
-		 */
-		public int getX() {
-			return x;
-		}
-		
-		/**
-		 * Method to return the y-position
-		 * 
-		 * @return integer value of y-position 
-		 */
-		public int getY() {
-			return y;	
-		}
-		
-		/**
-		 * Method to convert integer values representing coordinates into a single string form
-		 * 
-		 * @return string form of coordinates
-		 */
-		public String toString() {
-			return String.format("(%d, %d)", x, y);
-		}
-	
-	}
-	
-	private Tile entrance;
-	private Tile exit;
-	private List<List<Tile>> tiles;
-
-	/**
-	 * Constructor which intialises the tiles 2-D list, entrance and exit.
-	 */
-	private Maze() {
-		tiles = new ArrayList<List<Tile>>();
-		entrance = null;
-		exit = null;
-	}
-	
-	/**
-	 * Method which reads from a file and converts the character representation of a maze into a 2-D list of tiles.
-	 * It does so by assigning a tile of a specific type based on the character.
-	 * 
-	 * @param s file path of the file containing the maze
-	 * @return returns the new maze object created
-	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
-	 * 								and all rows are not of the same length
-	 * @throws FileNotFoundException thrown when the provided file does not exist
-	 * @throws IOException thrown when an invalid file path is provided
-	 */
-	public static Maze fromTxt(String s) throws InvalidMazeException,
-										 FileNotFoundException, IOException {
-		try 
-		{
-			if (!s.contains(".txt")) {
-				throw new IOException("Invalid file type");
-			}
-			File fileCheck = new File(s);
-
-			if(!fileCheck.exists() || fileCheck.isDirectory()) { 
-    			throw new FileNotFoundException();
-			}
-
-			if (fileCheck.length() == 0) {
-				throw new EOFException("Cannot load from empty file");
-			}
-
-			FileReader file = new FileReader(s);
-			BufferedReader fileStream = new BufferedReader(file);
-
-			String line;
-			int numberOfExits = 0;
-			int numberOfEntrances = 0;
-			int noOfCharsFirstLine = -1;
-			Tile toBeEntrance = null;
-			Tile toBeExit = null;
-			Maze newMaze = new Maze();
-			List<List<Tile>> newTiles = newMaze.getTiles();
-
-			while((line = fileStream.readLine()) != null){
-				char[] ch  = line.toCharArray();
-				if (noOfCharsFirstLine == -1) {
-					noOfCharsFirstLine = ch.length;
-				}
-				else if (noOfCharsFirstLine != ch.length){
-					throw new RaggedMazeException();
-				}
-
-				List<Tile> lineTiles = new ArrayList<Tile>();
-
-				for (int i=0; i<ch.length; i++) {
-					Tile currentTile = Tile.fromChar(ch[i]);
-					lineTiles.add(currentTile);
-					if (ch[i] == 'e') {
-						numberOfEntrances++;
-						toBeEntrance = currentTile;
-					}
-					else if (ch[i] == 'x') {
-						numberOfExits++;
-						toBeExit = currentTile;
-					}
-				}
-				newTiles.add(lineTiles);
-			}
-
-			fileStream.close();
-			file.close();
-
-			if (numberOfEntrances == 0) {
-				throw new NoEntranceException();
-			}
-			else if (numberOfEntrances > 1) {
-				throw new MultipleEntranceException();
-			}
-			else if (numberOfExits == 0) {
-				throw new NoExitException();
-			}
-			else if (numberOfExits > 1) {
-				throw new MultipleExitException();
-			}
-			else{
-				newMaze.setEntrance(toBeEntrance);
-				newMaze.setExit(toBeExit);
-			}
-			return newMaze;
-		} catch (FileNotFoundException e) {
-			throw new FileNotFoundException("File could not be found.");
-		}
-	}
-	
-	/**
-	 * Method which calculates the tile adjacent to the current tile in a specific direction.
-	 * It does this by adding an offset to the coordinates.
-	 * 
-	 * @param t the current tile
-	 * @param d the direction of the desired adjacent tile
-	 * @return returns the tile which is adjacent in a specific direction
-	 */
-	public Tile getAdjacentTile(Tile t, Direction d) {
-		Coordinate tileLocation = getTileLocation(t);
-		Coordinate adjLocation = null;
-		switch (d) {
-			case NORTH:
-				if (tileLocation.getY() == (tiles.size()-1))
-					return null;
-				else
-					adjLocation = new Coordinate(tileLocation.getX(), tileLocation.getY() + 1);
-				break;
-			case SOUTH:
-				if (tileLocation.getY() == 0)
-					return null;
-				else
-					adjLocation = new Coordinate(tileLocation.getX(), tileLocation.getY() - 1);
-				break;
-			case EAST:
-				int noOfColumns = tiles.get(0).size();
-				if (tileLocation.getY() == (noOfColumns - 1))
-					return null;
-				else
-					adjLocation = new Coordinate(tileLocation.getX() + 1, tileLocation.getY());
-				break;
-			case WEST:
-				if (tileLocation.getX() == 0)
-					return null;
-				else
-					adjLocation = new Coordinate(tileLocation.getX() - 1, tileLocation.getY());
-				break;		
-			default:
-				break;
-		}
-		return getTileAtLocation(adjLocation);//getTileLocation(adjLocation); //change made here
-	}
-	
-	/**
-	 * Method to return the entrance tile
-	 * 
-	 * @return returns the entrance tile of the maze
-	 */
-	public Tile getEntrance() {
-		return entrance;
-	}
-	
-		/**
-	 * Method to return the exit tile
-	 * 
-	 * @return returns the exit tile of the maze
-	 */
-	public Tile getExit() {
-		return exit;
-	} 
-	
-	/**
-	 * Returns the tile of the maze at the specified coordinate
-	 * 
-	 * @param c coordinate of the desired tile
-	 * @return returns the tile at the specified coordinate
-	 */
-	public Tile getTileAtLocation(Coordinate c) {
-		return tiles.get(tiles.size() - 1 - c.getY()).get(c.getX());
-	}
-	
-	/**
-	 * Returns the coordinate of a specified tile.
-	 * It does this by searching the 2-D list of tiles until the specified tile is found
-	 * 
-	 * @param t the tile at the desired coordinate
-	 * @return returns the coordinate of the specified tile which is in the 2-D list
-	 *         returns null if the tile is not in the 2-D list
-	 */
-	public Coordinate getTileLocation(Tile t) {
-		int x = -1;
-		int y = -1;
-		boolean found = false;
-		for (int i=0; i<tiles.size(); i++) {
-			List<Tile> currentRow = tiles.get(i);
-			for (int j=0; j<currentRow.size(); j++) {
-				if (currentRow.get(j).equals(t)) {
-					x = j;
-					found = true;
-					break;
-				}
-			}
-			if (found) {
-				y = (tiles.size() - 1 - i);
-				break;
-			}
-		}
-
-		if (found) {
-			return new Coordinate(x, y);
-		}
-		else{
-			return null;
-		}
-	}
-	
-	/**
-	 * Method to access the 2-D list of tiles
-	 * 
-	 * @return returns the 2-D list of tiles representing the maze
-	 */
-	public List<List<Tile>> getTiles() {
-		return tiles;
-	}
-	
-	/**
-	 * Method to set the entrance of the maze to the specified tile
-	 * 
-	 * @param t tile to potentially be the entrance of the maze
-	 * @throws MultipleEntranceException thrown when the entrance has already been set
-	 * @throws IllegalArgumentException thrown when the provided tile is not in the maze
-	 */
-	private void setEntrance(Tile t) throws MultipleEntranceException, IllegalArgumentException{
-		if (getTileLocation(t) == null) {
-			throw new IllegalArgumentException("Entrance tile not in maze");
-		}
-		else if (entrance == null) {
-			entrance = t;
-		}
-		else {
-			throw new MultipleEntranceException();
-		}
-	}
-	
-	/**
-	 * Method set the exit of the maze to the specified tile
-	 * 
-	 * @param t tile to potentially be the exit of the maze
-	 * @throws MultipleExitException thrown when the exit has already been set
-	 * @throws IllegalArgumentException thrown when the provided tile is not in the maze
-	 */
-	private void setExit(Tile t) throws MultipleExitException, IllegalArgumentException{
-		if (getTileLocation(t) == null) {
-			throw new IllegalArgumentException("Exit tile not in maze");
-		}
-		else if (exit == null) {
-			exit = t;
-		}
-		else {
-			throw new MultipleExitException();
-		}
-	}
-	
-	/**
-	 * Method to convert the 2-D list of tiles into a string.
-	 * This is done by checking the type associated with each tile
-	 * 
-	 * @return returns the string which represents the 2-D maze as characters
-	 */
-	public String toString() {
-		String mazeString = "";
-		int noOfColumns = -1;
-
-		for (int i=0; i<tiles.size(); i++) {
-			List<Tile> currentRow = tiles.get(i);
-			noOfColumns = currentRow.size() - 1;
-			mazeString = mazeString + (tiles.size() - 1 - i) + "		";
-			for (int j=0; j<currentRow.size(); j++) {
-				String currentChar = currentRow.get(j).toString();
-				mazeString = mazeString + currentChar + " ";
-			}
-			mazeString = mazeString + String.format("\n");
-		}
-
-		mazeString = mazeString + String.format("\n");
-		mazeString = mazeString + " " + "		";
-
-		for (int i=0; i<= noOfColumns; i++) {
-			mazeString = mazeString + i + " ";
-		}
-
-		return mazeString;
-	}
-	
-}
+package maze;
+
+import java.util.*;
+import java.io.*;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+
+/**
+ * Class which defines Maze and contains the Direction enumeration and coordinate class.
+ * A maze is serialised as its size, storage, layout and entrance and exit,
+ * followed by one bit per cell saying whether it is navigable, compressed with Deflater.
+ * 
+ * @author Joshwin Sundarraj
+ */
+public class Maze implements Serializable, AutoCloseable {
+
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * Enumeration which defines all possible directions to traverse the maze
+	 */
+	public enum Direction {
+		NORTH,
+		EAST,
+		SOUTH,
+		WEST
+	}
+
+	/**
+	 * Enumeration which defines the ways the cells of a maze can be stored
+	 */
+	public enum Storage {
+		/** One byte per cell holding the type of the cell */
+		PACKED,
+		/** One bit per cell holding whether the cell is navigable, with the entrance and exit kept as indices */
+		BITMAP,
+		/** One byte per cell held outside the Java heap, counting against -XX:MaxDirectMemorySize */
+		OFF_HEAP,
+		/** A quadtree in which every uniform square block of cells is a single node */
+		QUADTREE,
+		/** Square pages of one byte per cell kept in a file on disk, with a bounded number held in memory */
+		PAGED
+	}
+
+	/**
+	 * Enumeration which defines the orders the cells of a maze can be laid out in
+	 */
+	public enum Layout {
+		/** Cells are stored row by row, starting with the first line of the maze file */
+		ROW_MAJOR,
+		/** Cells are stored in Z-order within square blocks, so vertical neighbours stay close in memory */
+		Z_ORDER
+	}
+
+	/**
+	 * Class which defines positioning by using two integer values to form coordinates.
+	 * Coordinates are immutable and do not belong to any particular maze.
+	 * 
+	 * @author Joshwin Sundarraj
+	 */
+	public static final class Coordinate implements Serializable{
+
+		private final int x;
+		private final int y;
+
+		/**
+		 * Constructor intialises the x & y postion
+		 * 
+		 * @param x_in the x position
+		 * @param y_in the y position
+		 */
+		public Coordinate(int x_in, int y_in) {
+			x = x_in;
+			y = y_in;
+		}
+		
+		/**
+		 * Method to return the x-position
+		 * 
+		 * @return integer value of x-position 
+		 */
+		public int getX() {
+			return x;
+		}
+		
+		/**
+		 * Method to return the y-position
+		 * 
+		 * @return integer value of y-position 
+		 */
+		public int getY() {
+			return y;	
+		}
+		
+		/**
+		 * Method to convert integer values representing coordinates into a single string form
+		 * 
+		 * @return string form of coordinates
+		 */
+		public String toString() {
+			return String.format("(%d, %d)", x, y);
+		}
+
+		/**
+		 * Method to check whether another object is a coordinate at the same position
+		 * 
+		 * @param o object to compare with
+		 * @return returns true if o is a coordinate with the same x & y position
+		 */
+		public boolean equals(Object o) {
+			if (!(o instanceof Coordinate)) {
+				return false;
+			}
+			Coordinate other = (Coordinate) o;
+			return x == other.x && y == other.y;
+		}
+
+		/**
+		 * Method to return a hash code consistent with equals
+		 * 
+		 * @return hash code of the position
+		 */
+		public int hashCode() {
+			return 31 * x + y;
+		}
+	
+	}
+	
+	/**
+	 * Class which presents one row of the packed grid as a list of tiles.
+	 * Tiles are only created when they are first read and are then reused,
+	 * and setting a tile writes its type back into the grid.
+	 */
+	private class TileRow extends AbstractList<Tile> implements RandomAccess {
+
+		private int row;
+
+		/**
+		 * Constructor which intialises the row of the grid the list presents
+		 * 
+		 * @param row_in the row index, 0 being the first line of the maze file
+		 */
+		private TileRow(int row_in) {
+			row = row_in;
+		}
+
+		public Tile get(int x) {
+			checkColumn(x);
+			return tileAt(layout.index(x, row));
+		}
+
+		public Tile set(int x, Tile t) {
+			checkColumn(x);
+			int index = layout.index(x, row);
+			editableGrid().set(index, (byte) t.getType().ordinal());
+			Tile previous = tileAt(index);
+			previous.setIndex(-1);
+			t.setIndex(index);
+			tileCache.put(index, t);
+			updateMasksAround(index);
+			return previous;
+		}
+
+		public int size() {
+			return width;
+		}
+
+		/**
+		 * Method which checks a column index lies within the row
+		 * 
+		 * @param x the column index
+		 * @throws IndexOutOfBoundsException thrown when the column is outside the row
+		 */
+		private void checkColumn(int x) throws IndexOutOfBoundsException {
+			if (x < 0 || x >= width) {
+				throw new IndexOutOfBoundsException("Column " + x + " outside row of width " + width);
+			}
+		}
+	}
+
+	/**
+	 * Class which presents the packed grid as the 2-D list of tiles returned by getTiles()
+	 */
+	private class TileGrid extends AbstractList<List<Tile>> implements RandomAccess, Serializable {
+
+		public List<Tile> get(int row) {
+			if (row < 0 || row >= height) {
+				throw new IndexOutOfBoundsException("Row " + row + " outside maze of height " + height);
+			}
+			return new TileRow(row);
+		}
+
+		public int size() {
+			return height;
+		}
+	}
+	
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Extension of binary maze files
+	 */
+	public static final String BINARY_EXTENSION = ".mzb";
+	private static final int BINARY_MAGIC = 0x4D5A4200;
+	private static final short BINARY_VERSION = 1;
+	private static final int BINARY_HEADER_LENGTH = 22;
+
+	/**
+	 * Extension of run-length encoded maze files in the text variant
+	 */
+	public static final String RLE_TEXT_EXTENSION = ".rle";
+
+	/**
+	 * Extension of run-length encoded maze files in the binary variant
+	 */
+	public static final String RLE_BINARY_EXTENSION = ".rlb";
+	private static final int RLE_MAGIC = 0x4D5A5200;
+	private static final short RLE_VERSION = 1;
+	private static final int RLE_HEADER_LENGTH = 14;
+
+	private transient Tile entrance;
+	private transient Tile exit;
+	private transient List<List<Tile>> tiles;
+	private int width;
+	private int height;
+	private transient CellLayout layout;
+	private transient CellView grid;
+	private transient CellGrid writableGrid;
+	private transient TileCache tileCache;
+
+	/**
+	 * Constructor which intialises an empty grid, the tiles view, entrance and exit.
+	 */
+	private Maze() {
+		this(0, 0, new RowMajorLayout(0), new ByteGrid(0));
+	}
+
+	/**
+	 * Constructor which wraps an already filled grid of type codes.
+	 * The grid is indexed as given by the layout, row 0 being the first line of the maze file.
+	 * 
+	 * @param width_in number of tiles in each row
+	 * @param height_in number of rows
+	 * @param layout_in order of the cells in the grid
+	 * @param grid_in storage holding the type code of every tile
+	 */
+	private Maze(int width_in, int height_in, CellLayout layout_in, CellGrid grid_in) {
+		this(width_in, height_in, layout_in, grid_in, grid_in);
+	}
+
+	/**
+	 * Constructor which wraps cells which may only be readable, as for a view onto another maze
+	 * 
+	 * @param width_in number of tiles in each row
+	 * @param height_in number of rows
+	 * @param layout_in order of the cells in the grid
+	 * @param grid_in the cells of the maze
+	 * @param writableGrid_in the same cells if they can be written, otherwise null
+	 */
+	private Maze(int width_in, int height_in, CellLayout layout_in, CellView grid_in, CellGrid writableGrid_in) {
+		width = width_in;
+		height = height_in;
+		layout = layout_in;
+		grid = grid_in;
+		writableGrid = writableGrid_in;
+		tiles = new TileGrid();
+		tileCache = null;
+		entrance = null;
+		exit = null;
+	}
+	
+	/**
+	 * Method which reads from a file and converts the character representation of a maze into a packed grid.
+	 * Each character is stored as the type code of its tile, tiles are only created when they are accessed.
+	 * 
+	 * @param s file path of the file containing the maze
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromTxt(String s) throws InvalidMazeException,
+										 FileNotFoundException, IOException {
+		return fromTxt(s, Storage.PACKED);
+	}
+
+	/**
+	 * Method which reads from a file and converts the character representation of a maze into a grid
+	 * using the given storage. The grid is sized from the length of the file once the first line has
+	 * been read, and each character is written straight into it.
+	 * 
+	 * @param s file path of the file containing the maze
+	 * @param storage the way the cells of the maze are stored
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromTxt(String s, Storage storage) throws InvalidMazeException,
+										 FileNotFoundException, IOException {
+		return fromTxt(s, storage, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads from a file and converts the character representation of a maze into a grid
+	 * using the given storage and cell order. The file is mapped into memory and its bytes
+	 * are scanned straight into the grid, so no strings are made for its lines.
+	 * 
+	 * @param s file path of the file containing the maze
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromTxt(String s, Storage storage, Layout order) throws InvalidMazeException,
+										 FileNotFoundException, IOException {
+		try 
+		{
+			File fileCheck = checkMazeFile(s, ".txt");
+			return parseText(mapFile(fileCheck), storage, order);
+		} catch (FileNotFoundException e) {
+			throw new FileNotFoundException("File could not be found.");
+		}
+	}
+
+	/**
+	 * Method which reads the character representation of a maze held in memory, from the position of
+	 * the buffer to its limit. A buffer starting with the gzip magic number is decompressed first.
+	 * The position of the buffer is not changed.
+	 * 
+	 * @param buffer the bytes of the maze
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when the buffer is empty
+	 * @throws IOException thrown when the buffer holds gzip data which cannot be decompressed
+	 */
+	public static Maze from(ByteBuffer buffer) throws InvalidMazeException, IOException {
+		return from(buffer, Storage.PACKED, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads the character representation of a maze held in memory using the given storage
+	 * and cell order. A buffer starting with the gzip magic number is decompressed first.
+	 * The position of the buffer is not changed.
+	 * 
+	 * @param buffer the bytes of the maze
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when the buffer is empty
+	 * @throws IOException thrown when the buffer holds gzip data which cannot be decompressed
+	 */
+	public static Maze from(ByteBuffer buffer, Storage storage, Layout order) throws InvalidMazeException, IOException {
+		ByteBuffer contents = buffer.slice();
+		if (isGzip(contents)) {
+			byte[] compressed = new byte[contents.remaining()];
+			contents.get(compressed);
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+				contents = ByteBuffer.wrap(in.readAllBytes());
+			}
+		}
+		return parseText(new ByteBuffer[] {contents}, storage, order);
+	}
+
+	/**
+	 * Method which reads the character representation of a maze from a stream, decompressing it first
+	 * if it starts with the gzip magic number. The stream is read to its end but not closed.
+	 * 
+	 * @param in the stream holding the maze
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when the stream is empty
+	 * @throws IOException thrown when the stream cannot be read
+	 */
+	public static Maze from(InputStream in) throws InvalidMazeException, IOException {
+		BufferedInputStream buffered = new BufferedInputStream(in);
+		buffered.mark(2);
+		boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+		buffered.reset();
+		InputStream source = gzip ? new GZIPInputStream(buffered) : buffered;
+		return parseText(new ByteBuffer[] {ByteBuffer.wrap(source.readAllBytes())}, Storage.PACKED, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads the character representation of a maze from a channel, decompressing it first
+	 * if it starts with the gzip magic number. A file channel is mapped rather than copied.
+	 * The channel is read to its end but not closed.
+	 * 
+	 * @param channel the channel holding the maze
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when the channel is empty
+	 * @throws IOException thrown when the channel cannot be read
+	 */
+	public static Maze from(ReadableByteChannel channel) throws InvalidMazeException, IOException {
+		if (channel instanceof FileChannel) {
+			FileChannel file = (FileChannel) channel;
+			long position = file.position();
+			long size = file.size() - position;
+			if (size <= Integer.MAX_VALUE) {
+				ByteBuffer contents = file.map(FileChannel.MapMode.READ_ONLY, position, size);
+				file.position(position + size);
+				return from(contents);
+			}
+		}
+		return from(Channels.newInputStream(channel));
+	}
+
+	/**
+	 * Method which checks whether a buffer starts with the gzip magic number
+	 * 
+	 * @param buffer the buffer, read from its position
+	 * @return returns true if the buffer holds gzip data
+	 */
+	private static boolean isGzip(ByteBuffer buffer) {
+		return buffer.remaining() >= 2 && buffer.get(buffer.position()) == (byte) 0x1f
+				&& buffer.get(buffer.position() + 1) == (byte) 0x8b;
+	}
+
+	/**
+	 * Method which reads the character representation of a maze into a grid using the given storage and cell order.
+	 * The grid is sized from the length of the maze once the first line has been found, and each character
+	 * is scanned straight into it, in parallel chunks when the maze is long enough.
+	 * 
+	 * @param contents the bytes of the maze in order, each buffer but the last Integer.MAX_VALUE bytes long
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when there are no bytes
+	 * @throws IOException thrown when paged storage cannot create its page file
+	 */
+	private static Maze parseText(ByteBuffer[] contents, Storage storage, Layout order) throws InvalidMazeException,
+										IOException {
+		return parseText(contents, storage, order, ChunkedParser.MIN_PARALLEL_LENGTH, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Method which reads the character representation of a maze into a grid, splitting it into parallel chunks
+	 * on a given pool once it is at least a given length. This lets tests run the parallel parse on small mazes.
+	 * 
+	 * @param contents the bytes of the maze in order, each buffer but the last Integer.MAX_VALUE bytes long
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @param minParallelLength mazes shorter than this are scanned on the calling thread
+	 * @param pool the pool longer mazes are parsed on
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws EOFException thrown when there are no bytes
+	 * @throws IOException thrown when paged storage cannot create its page file
+	 */
+	static Maze parseText(ByteBuffer[] contents, Storage storage, Layout order, long minParallelLength,
+							ForkJoinPool pool) throws InvalidMazeException, IOException {
+		long length = 0;
+		for (ByteBuffer buffer : contents) {
+			length += buffer.limit();
+		}
+		if (length == 0) {
+			throw new EOFException("Cannot load from empty file");
+		}
+		long firstLineLength = RowScanner.firstLineLength(contents);
+		if (firstLineLength > Integer.MAX_VALUE) {
+			throw new InvalidMazeException("Maze has too many tiles");
+		}
+		int noOfCharsFirstLine = (int) firstLineLength;
+		CellLayout newLayout = newLayout(order, noOfCharsFirstLine);
+		int maxRows = maxRows(noOfCharsFirstLine, length);
+		CellGrid newGrid = newGrid(storage, newLayout, noOfCharsFirstLine, maxRows);
+
+		RowScanner scanner;
+		if (ChunkedParser.worthSplitting(newGrid, length, minParallelLength, pool)) {
+			scanner = ChunkedParser.parse(contents, length, newGrid, newLayout, noOfCharsFirstLine, maxRows,
+											minParallelLength, pool);
+		}
+		else {
+			scanner = new RowScanner(newGrid, newLayout, noOfCharsFirstLine, 0, maxRows);
+			for (ByteBuffer buffer : contents) {
+				scanner.scan(buffer);
+			}
+			scanner.finish();
+		}
+
+		return assemble(noOfCharsFirstLine, scanner.getRow(), newLayout, newGrid,
+						scanner.getEntrances(), scanner.getEntranceIndex(),
+						scanner.getExits(), scanner.getExitIndex());
+	}
+	
+	/**
+	 * Method which opens a text maze file without reading its rows, which are read when they are first used.
+	 * The first time a file is opened it is checked and an index of where each row starts is written
+	 * next to it, named after the maze file with ".idx" added. Later opens read the index instead of the file
+	 * for as long as the size and modification time of the file stay the same and a few of its rows still agree with it.
+	 * 
+	 * @param s file path of the file containing the maze
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 * 								and all rows are not of the same length
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze openTxt(String s) throws InvalidMazeException, FileNotFoundException, IOException {
+		File fileCheck = checkMazeFile(s, ".txt");
+		ByteBuffer[] contents = mapFile(fileCheck);
+		MazeIndex index = MazeIndex.forFile(fileCheck, contents);
+		int newWidth = index.getWidth();
+		int newHeight = index.getHeight();
+		Maze newMaze = new Maze(newWidth, newHeight, new RowMajorLayout(newWidth),
+								new LazyRowGrid(contents, index.getOffsets(), newWidth, newHeight));
+		newMaze.setEntrance(newMaze.tileAt(index.getEntrance()));
+		newMaze.setExit(newMaze.tileAt(index.getExit()));
+		return newMaze;
+	}
+
+	/**
+	 * Method which checks that a filled grid has exactly one entrance and exit, then makes a maze of it
+	 * 
+	 * @param newWidth number of tiles in each row
+	 * @param newHeight number of rows
+	 * @param newLayout the layout of the cells in the grid
+	 * @param newGrid the filled grid
+	 * @param numberOfEntrances number of entrance cells in the grid
+	 * @param toBeEntrance index of an entrance cell
+	 * @param numberOfExits number of exit cells in the grid
+	 * @param toBeExit index of an exit cell
+	 * @return returns the new maze
+	 * @throws InvalidMazeException thrown when there is not exactly one exit and entrance
+	 */
+	private static Maze assemble(int newWidth, int newHeight, CellLayout newLayout, CellGrid newGrid,
+								int numberOfEntrances, int toBeEntrance, int numberOfExits, int toBeExit)
+								throws InvalidMazeException {
+		if (numberOfEntrances == 0) {
+			throw new NoEntranceException();
+		}
+		else if (numberOfEntrances > 1) {
+			throw new MultipleEntranceException();
+		}
+		else if (numberOfExits == 0) {
+			throw new NoExitException();
+		}
+		else if (numberOfExits > 1) {
+			throw new MultipleExitException();
+		}
+
+		Maze newMaze = new Maze(newWidth, newHeight, newLayout, newGrid);
+		newMaze.buildMasks();
+		newMaze.setEntrance(newMaze.tileAt(toBeEntrance));
+		newMaze.setExit(newMaze.tileAt(toBeExit));
+		return newMaze;
+	}
+
+	/**
+	 * Method which reads a maze from the binary format written by toBinary
+	 * 
+	 * @param s file path of the binary maze file
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the file is not a binary maze or is cut short
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromBinary(String s) throws InvalidMazeException, FileNotFoundException, IOException {
+		return fromBinary(s, Storage.PACKED, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads a maze from the binary format written by toBinary, using the given storage and cell order.
+	 * The format is a header of BINARY_HEADER_LENGTH bytes, the magic number, version, width, height
+	 * and the indices of the entrance and exit in file order, followed by the type code of every cell
+	 * row by row, packed 2 bits each with the first cell in the lowest bits of a byte.
+	 * The cells were checked when the file was written, so they are copied into the grid without checking them again.
+	 * The header alone says where the entrance and exit are, which only need to be navigable cells,
+	 * so a region given its own entrance and exit on corridors reads back the same.
+	 * 
+	 * @param s file path of the binary maze file
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the file is not a binary maze or is cut short
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromBinary(String s, Storage storage, Layout order) throws InvalidMazeException,
+										FileNotFoundException, IOException {
+		return parseBinary(mapFile(checkMazeFile(s, BINARY_EXTENSION)), storage, order);
+	}
+
+	/**
+	 * Method which reads a maze written by writeBinary from a stream, reading no further than the end of the maze
+	 * 
+	 * @param in the stream to read from
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the bytes are not a binary maze
+	 * @throws EOFException thrown when the stream ends before the maze
+	 * @throws IOException thrown when the stream cannot be read
+	 */
+	public static Maze readBinary(DataInput in) throws InvalidMazeException, IOException {
+		byte[] header = new byte[BINARY_HEADER_LENGTH];
+		in.readFully(header);
+		ByteBuffer fields = ByteBuffer.wrap(header);
+		if (fields.getInt(0) != BINARY_MAGIC) {
+			throw new InvalidMazeException("Not a binary maze file");
+		}
+		long cellCount = (long) fields.getInt(6) * fields.getInt(10);
+		if (fields.getInt(6) <= 0 || fields.getInt(10) <= 0 || (cellCount + 3) / 4 > Integer.MAX_VALUE - BINARY_HEADER_LENGTH) {
+			throw new InvalidMazeException("Binary maze has an invalid size");
+		}
+		byte[] contents = Arrays.copyOf(header, BINARY_HEADER_LENGTH + (int) ((cellCount + 3) / 4));
+		in.readFully(contents, BINARY_HEADER_LENGTH, contents.length - BINARY_HEADER_LENGTH);
+		return parseBinary(new ByteBuffer[] {ByteBuffer.wrap(contents)}, Storage.PACKED, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads a maze in the binary format from memory
+	 * 
+	 * @param contents the bytes of the maze in order, each buffer but the last Integer.MAX_VALUE bytes long
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the bytes are not a binary maze or are cut short
+	 * @throws IOException thrown when paged storage cannot create its page file
+	 */
+	static Maze parseBinary(ByteBuffer[] contents, Storage storage, Layout order) throws InvalidMazeException,
+										IOException {
+		ByteBuffer header = contents[0];
+		if (header.limit() < BINARY_HEADER_LENGTH || header.getInt(0) != BINARY_MAGIC) {
+			throw new InvalidMazeException("Not a binary maze file");
+		}
+		if (header.getShort(4) != BINARY_VERSION) {
+			throw new InvalidMazeException("Unsupported binary maze version " + header.getShort(4));
+		}
+		int newWidth = header.getInt(6);
+		int newHeight = header.getInt(10);
+		int toBeEntrance = header.getInt(14);
+		int toBeExit = header.getInt(18);
+		long cellCount = (long) newWidth * newHeight;
+		long length = 0;
+		for (ByteBuffer buffer : contents) {
+			length += buffer.limit();
+		}
+		if (newWidth <= 0 || newHeight <= 0 || length != BINARY_HEADER_LENGTH + (cellCount + 3) / 4) {
+			throw new InvalidMazeException("Binary maze file is the wrong length");
+		}
+		if (toBeEntrance < 0 || toBeEntrance >= cellCount || toBeExit < 0 || toBeExit >= cellCount) {
+			throw new InvalidMazeException("Entrance or exit is outside the maze");
+		}
+
+		CellLayout newLayout = newLayout(order, newWidth);
+		CellGrid newGrid = newGrid(storage, newLayout, newWidth, newHeight);
+		long position = BINARY_HEADER_LENGTH;
+		int packed = 0;
+		int cell = 0;
+		for (int row=0; row<newHeight; row++) {
+			for (int x=0; x<newWidth; x++, cell++) {
+				if ((cell & 3) == 0) {
+					packed = RowScanner.byteAt(contents, position++);
+				}
+				newGrid.set(newLayout.index(x, row), (byte) ((packed >>> ((cell & 3) << 1)) & 3));
+			}
+		}
+
+		Maze newMaze = new Maze(newWidth, newHeight, newLayout, newGrid);
+		int entranceIndex = newLayout.index(toBeEntrance % newWidth, toBeEntrance / newWidth);
+		int exitIndex = newLayout.index(toBeExit % newWidth, toBeExit / newWidth);
+		if (!newGrid.isNavigable(entranceIndex) || !newGrid.isNavigable(exitIndex)) {
+			throw new InvalidMazeException("Entrance or exit does not match the cells");
+		}
+		newMaze.buildMasks();
+		newMaze.setEntrance(newMaze.tileAt(entranceIndex));
+		newMaze.setExit(newMaze.tileAt(exitIndex));
+		return newMaze;
+	}
+
+	/**
+	 * Method which writes the maze in the binary format read by fromBinary
+	 * 
+	 * @param s file path to write the maze to
+	 * @throws NoEntranceException thrown when the maze has no entrance, which only happens for a region
+	 * @throws NoExitException thrown when the maze has no exit, which only happens for a region
+	 * @throws InvalidMazeException thrown when the entrance or exit is on a wall, which only happens for a region
+	 * @throws IOException thrown when the path is not of a binary maze file or the file cannot be written
+	 */
+	public void toBinary(String s) throws NoEntranceException, NoExitException, InvalidMazeException, IOException {
+		if (!s.contains(BINARY_EXTENSION)) {
+			throw new IOException("Invalid file type");
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(s)))) {
+			writeBinary(out);
+		}
+	}
+
+	/**
+	 * Method which returns the number of bytes the maze takes up in the binary format
+	 * 
+	 * @return returns the length of the header and packed cells
+	 */
+	long getBinaryLength() {
+		return BINARY_HEADER_LENGTH + ((long) width * height + 3) / 4;
+	}
+
+	/**
+	 * Method which writes the maze in the binary format to a stream, so it can be embedded in other files
+	 * and read back with readBinary
+	 * 
+	 * @param out the stream to write to
+	 * @throws NoEntranceException thrown when the maze has no entrance, which only happens for a region
+	 * @throws NoExitException thrown when the maze has no exit, which only happens for a region
+	 * @throws InvalidMazeException thrown when the entrance or exit is on a wall, which only happens for a region
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	public void writeBinary(DataOutput out) throws NoEntranceException, NoExitException, InvalidMazeException,
+										IOException {
+		if (entrance == null) {
+			throw new NoEntranceException();
+		}
+		if (exit == null) {
+			throw new NoExitException();
+		}
+		if (!isNavigable(getEntranceIndex()) || !isNavigable(getExitIndex())) {
+			// fromBinary would not read it back
+			throw new InvalidMazeException("Entrance or exit does not match the cells");
+		}
+		out.writeInt(BINARY_MAGIC);
+		out.writeShort(BINARY_VERSION);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeInt(fileOrderIndex(getEntranceIndex()));
+		out.writeInt(fileOrderIndex(getExitIndex()));
+		int packed = 0;
+		int cell = 0;
+		for (int row=0; row<height; row++) {
+			for (int x=0; x<width; x++, cell++) {
+				packed |= grid.get(layout.index(x, row)) << ((cell & 3) << 1);
+				if ((cell & 3) == 3) {
+					out.write(packed);
+					packed = 0;
+				}
+			}
+		}
+		if ((cell & 3) != 0) {
+			out.write(packed);
+		}
+	}
+
+	/**
+	 * Method which returns the position of a cell when the cells are read row by row from the first line of the maze
+	 * 
+	 * @param index index of the cell
+	 * @return returns row * width + x, or -1 if index is -1
+	 */
+	private int fileOrderIndex(int index) {
+		return index == -1 ? -1 : layout.row(index) * width + layout.x(index);
+	}
+
+	/**
+	 * Method which reads a run-length encoded maze written by toRle
+	 * 
+	 * @param s file path of the encoded maze, ending in RLE_TEXT_EXTENSION or RLE_BINARY_EXTENSION
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the file is not a valid encoded maze
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromRle(String s) throws InvalidMazeException, FileNotFoundException, IOException {
+		return fromRle(s, Storage.PACKED, Layout.ROW_MAJOR);
+	}
+
+	/**
+	 * Method which reads a run-length encoded maze written by toRle, using the given storage and cell order.
+	 * The text variant is a header line "RLE width height" followed by one line per row of the maze,
+	 * each a list of runs written as a count and the character of the tile, the count being left out when it is 1.
+	 * The binary variant is a header of RLE_HEADER_LENGTH bytes, the magic number, version, width and height,
+	 * followed by the runs of the whole maze row by row, each a varint of (count &lt;&lt; 2) | type code.
+	 * Each run is written into the grid with a single fill for each row it covers.
+	 * 
+	 * @param s file path of the encoded maze, ending in RLE_TEXT_EXTENSION or RLE_BINARY_EXTENSION
+	 * @param storage the way the cells of the maze are stored
+	 * @param order the order the cells of the maze are laid out in
+	 * @return returns the new maze object created
+	 * @throws InvalidMazeException thrown when the file is not a valid encoded maze
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided
+	 */
+	public static Maze fromRle(String s, Storage storage, Layout order) throws InvalidMazeException,
+										FileNotFoundException, IOException {
+		boolean binary = s.contains(RLE_BINARY_EXTENSION);
+		ByteBuffer[] contents = mapFile(checkMazeFile(s, binary ? RLE_BINARY_EXTENSION : RLE_TEXT_EXTENSION));
+		long length = 0;
+		for (ByteBuffer buffer : contents) {
+			length += buffer.limit();
+		}
+
+		long position;
+		int newWidth;
+		int newHeight;
+		if (binary) {
+			ByteBuffer header = contents[0];
+			if (header.limit() < RLE_HEADER_LENGTH || header.getInt(0) != RLE_MAGIC) {
+				throw new InvalidMazeException("Not a run-length encoded maze file");
+			}
+			if (header.getShort(4) != RLE_VERSION) {
+				throw new InvalidMazeException("Unsupported run-length encoded maze version " + header.getShort(4));
+			}
+			newWidth = header.getInt(6);
+			newHeight = header.getInt(10);
+			position = RLE_HEADER_LENGTH;
+		}
+		else {
+			StringBuilder header = new StringBuilder();
+			for (position = 0; position < length && RowScanner.byteAt(contents, position) != '\n'; position++) {
+				header.append((char) RowScanner.byteAt(contents, position));
+			}
+			position++;
+			String[] fields = header.toString().trim().split(" ");
+			if (fields.length != 3 || !fields[0].equals("RLE")) {
+				throw new InvalidMazeException("Not a run-length encoded maze file");
+			}
+			try {
+				newWidth = Integer.parseInt(fields[1]);
+				newHeight = Integer.parseInt(fields[2]);
+			} catch (NumberFormatException e) {
+				throw new InvalidMazeException("Not a run-length encoded maze file");
+			}
+		}
+		if (newWidth <= 0 || newHeight <= 0) {
+			throw new InvalidMazeException("Maze has no tiles");
+		}
+
+		CellLayout newLayout = newLayout(order, newWidth);
+		CellGrid newGrid = newGrid(storage, newLayout, newWidth, newHeight);
+		RunDecoder decoder = new RunDecoder(newGrid, newLayout, newWidth, newHeight);
+		if (binary) {
+			while (position < length) {
+				long run = 0;
+				int shift = 0;
+				byte b;
+				do {
+					if (position >= length || shift > 56) {
+						throw new InvalidMazeException("Run-length encoded maze file is cut short");
+					}
+					b = RowScanner.byteAt(contents, position++);
+					run |= (long) (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+				decoder.run(run >>> 2, (byte) (run & 3), false);
+			}
+		}
+		else {
+			long count = 0;
+			for (; position < length; position++) {
+				char ch = (char) RowScanner.byteAt(contents, position);
+				if (ch >= '0' && ch <= '9') {
+					count = count * 10 + (ch - '0');
+					if (count > Integer.MAX_VALUE) {
+						throw new RaggedMazeException();
+					}
+				}
+				else if (ch == '\n' || ch == '\r') {
+					if (count != 0) {
+						throw new InvalidMazeException("Run has no tile");
+					}
+					decoder.endRow();
+					if (ch == '\r' && position + 1 < length && RowScanner.byteAt(contents, position + 1) == '\n') {
+						position++;
+					}
+				}
+				else {
+					decoder.run(count == 0 ? 1 : count, Tile.codeFromChar(ch), true);
+					count = 0;
+				}
+			}
+			if (decoder.inRow()) {
+				decoder.endRow();
+			}
+		}
+		if (decoder.getRow() != newHeight) {
+			throw new InvalidMazeException("Maze has fewer rows than its height");
+		}
+		return assemble(newWidth, newHeight, newLayout, newGrid,
+						decoder.getEntrances(), decoder.getEntranceIndex(),
+						decoder.getExits(), decoder.getExitIndex());
+	}
+
+	/**
+	 * Method which writes the maze run-length encoded, in the text or binary variant read by fromRle
+	 * 
+	 * @param s file path to write the maze to, ending in RLE_TEXT_EXTENSION or RLE_BINARY_EXTENSION
+	 * @throws IOException thrown when the path is not of an encoded maze file or the file cannot be written
+	 */
+	public void toRle(String s) throws IOException {
+		boolean binary = s.contains(RLE_BINARY_EXTENSION);
+		if (!binary && !s.contains(RLE_TEXT_EXTENSION)) {
+			throw new IOException("Invalid file type");
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(s)))) {
+			if (binary) {
+				out.writeInt(RLE_MAGIC);
+				out.writeShort(RLE_VERSION);
+				out.writeInt(width);
+				out.writeInt(height);
+			}
+			else {
+				out.writeBytes("RLE " + width + " " + height + "\n");
+			}
+			long count = 0;
+			byte code = -1;
+			for (int row=0; row<height; row++) {
+				for (int x=0; x<width; x++) {
+					byte next = grid.get(layout.index(x, row));
+					if (next != code && count > 0) {
+						writeRun(out, count, code, binary);
+						count = 0;
+					}
+					code = next;
+					count++;
+				}
+				if (!binary) {
+					writeRun(out, count, code, false);
+					out.write('\n');
+					count = 0;
+				}
+			}
+			if (binary && count > 0) {
+				writeRun(out, count, code, true);
+			}
+		}
+	}
+
+	/**
+	 * Method which writes a single run of cells of one type
+	 * 
+	 * @param out the stream to write to
+	 * @param count number of cells in the run
+	 * @param code the type code of the cells
+	 * @param binary true to write the run as a varint, false to write it as text
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	private static void writeRun(DataOutputStream out, long count, byte code, boolean binary) throws IOException {
+		if (binary) {
+			long run = count << 2 | code;
+			while ((run & ~0x7FL) != 0) {
+				out.write((int) (run & 0x7F) | 0x80);
+				run >>>= 7;
+			}
+			out.write((int) run);
+		}
+		else {
+			if (count > 1) {
+				out.writeBytes(Long.toString(count));
+			}
+			out.write(Tile.charFromCode(code));
+		}
+	}
+
+	/**
+	 * Method which checks that a path names a maze file which can be read
+	 * 
+	 * @param s file path of the file containing the maze
+	 * @param extension the extension a file of the expected format has
+	 * @return returns the file
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws EOFException thrown when the file is empty
+	 * @throws IOException thrown when the path is not of the expected format
+	 */
+	static File checkMazeFile(String s, String extension) throws FileNotFoundException, IOException {
+		if (!s.contains(extension)) {
+			throw new IOException("Invalid file type");
+		}
+		File fileCheck = new File(s);
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(fileCheck.toPath(), BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException("File could not be found.");
+		}
+
+		if (attributes.isDirectory()) { 
+			throw new FileNotFoundException("File could not be found.");
+		}
+
+		if (attributes.size() == 0) {
+			throw new EOFException("Cannot load from empty file");
+		}
+		return fileCheck;
+	}
+
+	/**
+	 * Method which maps a file into memory so its bytes can be read without copying them.
+	 * A single mapping cannot be longer than Integer.MAX_VALUE bytes, so larger files are mapped in pieces.
+	 * 
+	 * @param file the file to map
+	 * @return returns the mapped pieces of the file in order
+	 * @throws IOException thrown when the file cannot be read
+	 */
+	private static ByteBuffer[] mapFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer[] buffers = new ByteBuffer[(int) ((size + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE)];
+			for (int i = 0; i < buffers.length; i++) {
+				long position = (long) i * Integer.MAX_VALUE;
+				buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position));
+			}
+			return buffers;
+		}
+	}
+
+	/**
+	 * Method which creates an empty grid with room for a number of rows
+	 * 
+	 * @param storage the way the cells are stored
+	 * @param order the layout of the cells
+	 * @param width number of tiles in each row
+	 * @param rows number of rows
+	 * @return returns the new grid
+	 * @throws InvalidMazeException thrown when the maze has too many cells to be indexed
+	 * @throws IOException thrown when paged storage cannot create its page file
+	 */
+	private static CellGrid newGrid(Storage storage, CellLayout order, int width, int rows)
+										throws InvalidMazeException, IOException {
+		long cellCount = order.cellCount(rows);
+		if (cellCount > Integer.MAX_VALUE) {
+			throw new InvalidMazeException("Maze has too many tiles");
+		}
+		switch (storage) {
+			case BITMAP:
+				return new BitGrid(order, width, rows);
+			case OFF_HEAP:
+				return new OffHeapGrid((int) cellCount);
+			case QUADTREE:
+				return new QuadTreeGrid(order, width, rows);
+			case PAGED:
+				return new PagedGrid(order, width, rows);
+			default:
+				return new ByteGrid((int) cellCount);
+		}
+	}
+	
+	/**
+	 * Method which returns the most rows of a given width a maze file could hold.
+	 * Every row except the last is followed by at least one line separator, so the file
+	 * cannot hold more than (length + 1) / (width + 1) rows.
+	 * 
+	 * @param width number of tiles in each row
+	 * @param fileLength length of the maze file in bytes
+	 * @return returns the most rows the file could hold
+	 */
+	static int maxRows(int width, long fileLength) {
+		return width == 0 ? 0 : (int) Math.min((fileLength + 1) / (width + 1), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Method which creates the layout of the cells for a maze of a given width
+	 * 
+	 * @param order the order of the cells
+	 * @param width number of tiles in each row
+	 * @return returns the new layout
+	 */
+	private static CellLayout newLayout(Layout order, int width) {
+		switch (order) {
+			case Z_ORDER:
+				return new ZOrderLayout(width);
+			default:
+				return new RowMajorLayout(width);
+		}
+	}
+	
+	/**
+	 * Method which calculates the tile adjacent to the current tile in a specific direction.
+	 * It does this by finding the index of the adjacent cell.
+	 * 
+	 * @param t the current tile
+	 * @param d the direction of the desired adjacent tile
+	 * @return returns the tile which is adjacent in a specific direction,
+	 *         or null if it would be outside the maze or the tile is not in the maze
+	 */
+	public Tile getAdjacentTile(Tile t, Direction d) {
+		int index = indexOf(t);
+		if (index == -1) {
+			return null;
+		}
+		int adjIndex = neighbour(index, d);
+		if (adjIndex == -1) {
+			return null;
+		}
+		return tileAt(adjIndex);
+	}
+	
+	/**
+	 * Method to return the entrance tile
+	 * 
+	 * @return returns the entrance tile of the maze
+	 */
+	public Tile getEntrance() {
+		return entrance;
+	}
+	
+		/**
+	 * Method to return the exit tile
+	 * 
+	 * @return returns the exit tile of the maze
+	 */
+	public Tile getExit() {
+		return exit;
+	} 
+	
+	/**
+	 * Returns the tile of the maze at the specified coordinate
+	 * 
+	 * @param c coordinate of the desired tile
+	 * @return returns the tile at the specified coordinate
+	 */
+	public Tile getTileAtLocation(Coordinate c) {
+		return tileAt(getIndex(c.getX(), c.getY()));
+	}
+	
+	/**
+	 * Returns the coordinate of a specified tile.
+	 * It does this by reading the cell index recorded on the tile when it was placed in the grid
+	 * 
+	 * @param t the tile at the desired coordinate
+	 * @return returns the coordinate of the specified tile which is in the 2-D list
+	 *         returns null if the tile is not in the 2-D list
+	 */
+	public Coordinate getTileLocation(Tile t) {
+		int index = indexOf(t);
+		if (index == -1) {
+			return null;
+		}
+		return getCoordinate(index);
+	}
+	
+	/**
+	 * Method to access the 2-D list of tiles.
+	 * The list is a view of the packed grid, tiles are created the first time they are read.
+	 * 
+	 * @return returns the 2-D list of tiles representing the maze
+	 */
+	public List<List<Tile>> getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * Method to return the number of tiles in each row of the maze
+	 * 
+	 * @return width of the maze
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Method to return the number of rows in the maze
+	 * 
+	 * @return height of the maze
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Method to convert a coordinate into the index of its cell in the grid.
+	 * The order of the cells depends on the layout the maze was loaded with.
+	 * 
+	 * @param x the x position
+	 * @param y the y position
+	 * @return returns the index of the cell at (x, y)
+	 * @throws IndexOutOfBoundsException thrown when the coordinate is outside the maze
+	 */
+	public int getIndex(int x, int y) throws IndexOutOfBoundsException {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException(String.format("(%d, %d) is outside the maze", x, y));
+		}
+		return layout.index(x, height - 1 - y);
+	}
+
+	/**
+	 * Method to return the index of the cell in the given direction of another cell.
+	 * No objects are created, so solvers can call this on every step.
+	 * 
+	 * @param index index of the current cell
+	 * @param d the direction of the desired adjacent cell
+	 * @return returns the index of the adjacent cell, or -1 if it would be outside the maze
+	 */
+	public int neighbour(int index, Direction d) {
+		int x = layout.x(index);
+		int row = layout.row(index);
+		switch (d) {
+			case NORTH:
+				return row == 0 ? -1 : layout.adjacent(index, d);
+			case SOUTH:
+				return row == height - 1 ? -1 : layout.adjacent(index, d);
+			case EAST:
+				return x == width - 1 ? -1 : layout.adjacent(index, d);
+			case WEST:
+				return x == 0 ? -1 : layout.adjacent(index, d);
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Method to return the index of the neighbour of a cell without checking the edges of the maze.
+	 * The neighbour must be inside the maze, which is the case whenever its bit is set in getNavigableMask.
+	 * 
+	 * @param index index of the current cell
+	 * @param d the direction of the adjacent cell
+	 * @return returns the index of the adjacent cell
+	 */
+	public int adjacentIndex(int index, Direction d) {
+		return layout.adjacent(index, d);
+	}
+
+	/**
+	 * Method to return the number of cell indices used by the maze.
+	 * Some layouts pad the grid, so this can be larger than width * height;
+	 * padding cells are walls outside the maze.
+	 * 
+	 * @return returns one more than the largest cell index
+	 */
+	public int getCellCount() {
+		return (int) layout.cellCount(height);
+	}
+
+	/**
+	 * Method to return the mask of navigable cells adjacent to a cell.
+	 * Bit 1 &lt;&lt; d.ordinal() is set when the cell in direction d is navigable. Cells outside
+	 * the maze count as walls, so a set bit always names a cell inside the maze and
+	 * adjacentIndex can be used to find it without checking the edges.
+	 * 
+	 * @param index index of the cell
+	 * @return returns the 4-bit mask of navigable neighbours
+	 */
+	public int getNavigableMask(int index) {
+		return grid.getMask(index);
+	}
+
+	/**
+	 * Method to return the side of the uniform square block of cells containing a cell.
+	 * Quadtree storage holds each such block as one node, so a solver can treat the whole
+	 * block as a single open region or wall; other storages return 1.
+	 * The top-left cell of the block is given by getUniformBlockCorner.
+	 * 
+	 * @param index index of the cell
+	 * @return returns the number of cells along each side of the block
+	 */
+	public int getUniformBlockSide(int index) {
+		if (grid instanceof QuadTreeGrid) {
+			return ((QuadTreeGrid) grid).blockSide(index);
+		}
+		return 1;
+	}
+
+	/**
+	 * Method to return the coordinate of the top-left cell of the uniform block containing a cell.
+	 * The block may reach past the right and bottom edges of the maze, where it covers padding
+	 * which is not part of the maze.
+	 * 
+	 * @param index index of the cell
+	 * @return returns the coordinate of the top-left cell of the block
+	 */
+	public Coordinate getUniformBlockCorner(int index) {
+		int blockSide = getUniformBlockSide(index);
+		int x = layout.x(index);
+		int row = layout.row(index);
+		return new Coordinate(x - x % blockSide, height - 1 - (row - row % blockSide));
+	}
+
+	/**
+	 * Method to set how many pages of a paged maze may be held in memory at once.
+	 * Each page holds 256 x 256 cells in 64 KB. Other storages are unaffected.
+	 * 
+	 * @param pages the number of pages, at least one
+	 */
+	public void setPageCacheLimit(int pages) {
+		if (grid instanceof PagedGrid) {
+			((PagedGrid) grid).setResidentLimit(pages);
+		}
+	}
+
+	/**
+	 * Method to return how many moves of a paged maze into a different page found that page in memory.
+	 * Accesses within the page used last are not counted.
+	 * 
+	 * @return returns the number of page cache hits, 0 for other storages
+	 */
+	public long getPageCacheHits() {
+		return grid instanceof PagedGrid ? ((PagedGrid) grid).getHits() : 0;
+	}
+
+	/**
+	 * Method to return how many pages of a paged maze had to be read from disk
+	 * 
+	 * @return returns the number of page cache misses, 0 for other storages
+	 */
+	public long getPageCacheMisses() {
+		return grid instanceof PagedGrid ? ((PagedGrid) grid).getMisses() : 0;
+	}
+
+	/**
+	 * Method to return how many rows of a maze opened with openTxt have been read from its file
+	 * 
+	 * @return returns the number of rows read, the height of the maze for mazes which were loaded whole
+	 */
+	public int getLoadedRowCount() {
+		return grid instanceof LazyRowGrid ? ((LazyRowGrid) grid).getLoadedRows() : height;
+	}
+
+	/**
+	 * Method to return the coordinate of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the coordinate of the cell
+	 */
+	public Coordinate getCoordinate(int index) {
+		return new Coordinate(layout.x(index), height - 1 - layout.row(index));
+	}
+
+	/**
+	 * Method to return the index of the entrance cell
+	 * 
+	 * @return returns the index of the entrance, or -1 if there is no entrance
+	 */
+	public int getEntranceIndex() {
+		return indexOf(entrance);
+	}
+
+	/**
+	 * Method to return the index of the exit cell
+	 * 
+	 * @return returns the index of the exit, or -1 if there is no exit
+	 */
+	public int getExitIndex() {
+		return indexOf(exit);
+	}
+
+	/**
+	 * Method to return the index of the cell holding a tile
+	 * 
+	 * @param t the tile to find
+	 * @return returns the index of the tile's cell, or -1 if the tile is not in this maze
+	 */
+	public int getTileIndex(Tile t) {
+		return indexOf(t);
+	}
+
+	/**
+	 * Method to return the tile of a cell, for callers which still work with tiles
+	 * 
+	 * @param index index of the cell
+	 * @return returns the tile at the index
+	 */
+	public Tile getTile(int index) {
+		return tileAt(index);
+	}
+
+	/**
+	 * Method to check whether a cell could be included in a route, without creating a tile
+	 * 
+	 * @param index index of the cell
+	 * @return returns true if the cell is not a wall
+	 */
+	public boolean isNavigable(int index) {
+		return grid.isNavigable(index);
+	}
+
+	/**
+	 * Method to read the type of a cell straight from the packed grid without creating a tile
+	 * 
+	 * @param index index of the cell
+	 * @return returns the type of the cell
+	 */
+	public Tile.Type getCellType(int index) {
+		return Tile.TYPES[grid.get(index)];
+	}
+
+	/**
+	 * Method to return the character written to a maze file for a cell, without creating a tile
+	 * 
+	 * @param index index of the cell
+	 * @return returns the character representing the type of the cell
+	 */
+	public char getCellChar(int index) {
+		return Tile.charFromCode(grid.get(index));
+	}
+
+	/**
+	 * Method which computes the navigable neighbour mask of every cell
+	 */
+	private void buildMasks() {
+		if (!writableGrid.storesMasks()) {
+			return;
+		}
+		for (int row=0; row<height; row++) {
+			for (int x=0; x<width; x++) {
+				updateMask(layout.index(x, row));
+			}
+		}
+	}
+
+	/**
+	 * Method which recomputes the masks of a cell and of its neighbours after the cell has changed
+	 * 
+	 * @param index index of the changed cell
+	 */
+	private void updateMasksAround(int index) {
+		if (!writableGrid.storesMasks()) {
+			return;
+		}
+		updateMask(index);
+		for (Direction d: DIRECTIONS) {
+			int adjIndex = neighbour(index, d);
+			if (adjIndex != -1) {
+				updateMask(adjIndex);
+			}
+		}
+	}
+
+	/**
+	 * Method which recomputes the navigable neighbour mask of one cell
+	 * 
+	 * @param index index of the cell
+	 */
+	private void updateMask(int index) {
+		int mask = 0;
+		for (Direction d: DIRECTIONS) {
+			int adjIndex = neighbour(index, d);
+			if (adjIndex != -1 && grid.isNavigable(adjIndex)) {
+				mask |= 1 << d.ordinal();
+			}
+		}
+		writableGrid.setMask(index, mask);
+	}
+
+	/**
+	 * Method which returns the index of the cell holding a tile
+	 * 
+	 * @param t the tile to find
+	 * @return returns the index of the tile's cell, or -1 if the tile is not in this maze
+	 */
+	private int indexOf(Tile t) {
+		if (t == null || tileCache == null) {
+			return -1;
+		}
+		int index = t.getIndex();
+		if (index < 0 || tileCache.get(index) != t) {
+			return -1;
+		}
+		return index;
+	}
+
+	/**
+	 * Method which replaces the cells of one row, as read again from the maze file.
+	 * Only cells whose type has changed are written, and tiles already handed out for them are detached
+	 * from the maze, so the cost depends on the size of the change rather than the size of the maze.
+	 * The entrance and exit are not moved, moveEndpoints does that once every changed row is patched.
+	 * 
+	 * @param row the row, 0 being the first line of the maze file
+	 * @param codes the new type code of each cell of the row
+	 */
+	void patchRow(int row, byte[] codes) {
+		CellGrid cells = editableGrid();
+		for (int x=0; x<width; x++) {
+			int index = layout.index(x, row);
+			if (cells.get(index) != codes[x]) {
+				cells.set(index, codes[x]);
+				Tile previous = tileCache == null ? null : tileCache.remove(index);
+				if (previous != null) {
+					previous.setIndex(-1);
+				}
+				updateMasksAround(index);
+			}
+		}
+	}
+
+	/**
+	 * Method which points the entrance and exit at new cells after rows have been patched
+	 * 
+	 * @param entranceIndex index of the entrance cell
+	 * @param exitIndex index of the exit cell
+	 */
+	void moveEndpoints(int entranceIndex, int exitIndex) {
+		entrance = tileAt(entranceIndex);
+		exit = tileAt(exitIndex);
+	}
+
+	/**
+	 * Method which returns the cells of the maze for writing
+	 * 
+	 * @return returns the grid holding the cells
+	 * @throws UnsupportedOperationException thrown when the maze is a read-only view onto another maze
+	 */
+	private CellGrid editableGrid() throws UnsupportedOperationException {
+		if (writableGrid == null) {
+			throw new UnsupportedOperationException("Region views are read-only");
+		}
+		return writableGrid;
+	}
+
+	/**
+	 * Method which returns the tile for a cell of the grid, creating it on first access
+	 * 
+	 * @param index index of the cell
+	 * @return returns the tile at the index
+	 */
+	private Tile tileAt(int index) {
+		if (tileCache == null) {
+			tileCache = new TileCache();
+		}
+		Tile t = tileCache.get(index);
+		if (t == null) {
+			t = new Tile(Tile.TYPES[grid.get(index)]);
+			t.setIndex(index);
+			tileCache.put(index, t);
+		}
+		return t;
+	}
+	
+	/**
+	 * Method to set the entrance of the maze to the specified tile
+	 * 
+	 * @param t tile to potentially be the entrance of the maze
+	 * @throws MultipleEntranceException thrown when the entrance has already been set
+	 * @throws IllegalArgumentException thrown when the provided tile is not in the maze
+	 */
+	private void setEntrance(Tile t) throws MultipleEntranceException, IllegalArgumentException{
+		if (getTileLocation(t) == null) {
+			throw new IllegalArgumentException("Entrance tile not in maze");
+		}
+		else if (entrance == null) {
+			entrance = t;
+		}
+		else {
+			throw new MultipleEntranceException();
+		}
+	}
+	
+	/**
+	 * Method set the exit of the maze to the specified tile
+	 * 
+	 * @param t tile to potentially be the exit of the maze
+	 * @throws MultipleExitException thrown when the exit has already been set
+	 * @throws IllegalArgumentException thrown when the provided tile is not in the maze
+	 */
+	private void setExit(Tile t) throws MultipleExitException, IllegalArgumentException{
+		if (getTileLocation(t) == null) {
+			throw new IllegalArgumentException("Exit tile not in maze");
+		}
+		else if (exit == null) {
+			exit = t;
+		}
+		else {
+			throw new MultipleExitException();
+		}
+	}
+	
+	/**
+	 * Method which returns a view of a rectangle of the maze as a maze of its own.
+	 * The view shares the cells of this maze rather than copying them, has its own coordinates
+	 * with (0, 0) at the bottom-left of the rectangle, and keeps this maze's entrance and exit
+	 * if they lie inside the rectangle. The view is read-only.
+	 * 
+	 * @param x x position of the bottom-left tile of the rectangle
+	 * @param y y position of the bottom-left tile of the rectangle
+	 * @param w number of tiles across the rectangle
+	 * @param h number of tiles up the rectangle
+	 * @return returns the view of the rectangle
+	 * @throws IndexOutOfBoundsException thrown when the rectangle is not inside the maze
+	 */
+	public Maze region(int x, int y, int w, int h) throws IndexOutOfBoundsException {
+		Maze view = regionView(x, y, w, h);
+		Coordinate entranceLocation = getTileLocation(entrance);
+		Coordinate exitLocation = getTileLocation(exit);
+		if (entranceLocation != null && view.contains(entranceLocation.getX() - x, entranceLocation.getY() - y)) {
+			view.setEntrance(view.getTileAtLocation(new Coordinate(entranceLocation.getX() - x, entranceLocation.getY() - y)));
+		}
+		if (exitLocation != null && view.contains(exitLocation.getX() - x, exitLocation.getY() - y)) {
+			view.setExit(view.getTileAtLocation(new Coordinate(exitLocation.getX() - x, exitLocation.getY() - y)));
+		}
+		return view;
+	}
+
+	/**
+	 * Method which returns a view of a rectangle of the maze as a maze of its own,
+	 * with the given entrance and exit, so that a route can be found across just that rectangle.
+	 * The entrance and exit do not need to be entrance and exit tiles of this maze.
+	 * 
+	 * @param x x position of the bottom-left tile of the rectangle
+	 * @param y y position of the bottom-left tile of the rectangle
+	 * @param w number of tiles across the rectangle
+	 * @param h number of tiles up the rectangle
+	 * @param entrance_in coordinate of the entrance in the view's own coordinates
+	 * @param exit_in coordinate of the exit in the view's own coordinates
+	 * @return returns the view of the rectangle
+	 * @throws IndexOutOfBoundsException thrown when the rectangle, entrance or exit is not inside the maze
+	 */
+	public Maze region(int x, int y, int w, int h, Coordinate entrance_in, Coordinate exit_in)
+										throws IndexOutOfBoundsException {
+		Maze view = regionView(x, y, w, h);
+		view.setEntrance(view.getTileAtLocation(entrance_in));
+		view.setExit(view.getTileAtLocation(exit_in));
+		return view;
+	}
+
+	/**
+	 * Method which creates a view of a rectangle of the maze with no entrance or exit
+	 * 
+	 * @param x x position of the bottom-left tile of the rectangle
+	 * @param y y position of the bottom-left tile of the rectangle
+	 * @param w number of tiles across the rectangle
+	 * @param h number of tiles up the rectangle
+	 * @return returns the view of the rectangle
+	 * @throws IndexOutOfBoundsException thrown when the rectangle is not inside the maze
+	 */
+	private Maze regionView(int x, int y, int w, int h) throws IndexOutOfBoundsException {
+		if (w <= 0 || h <= 0 || x < 0 || y < 0 || x + w > width || y + h > height) {
+			throw new IndexOutOfBoundsException(String.format("Region (%d, %d) %dx%d is outside the maze", x, y, w, h));
+		}
+		int top = height - y - h;
+		return new Maze(w, h, new RowMajorLayout(w), new RegionGrid(grid, layout, x, top, w, h), null);
+	}
+
+	/**
+	 * Method which checks whether a coordinate lies inside the maze
+	 * 
+	 * @param x the x position
+	 * @param y the y position
+	 * @return returns true if the coordinate is inside the maze
+	 */
+	private boolean contains(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Method which releases the storage of the maze.
+	 * Off-heap storage drops its direct buffer, so the memory is given back when the garbage collector
+	 * next finds the buffer unreachable rather than lasting as long as the maze. It is not freed straight away,
+	 * so it still counts against -XX:MaxDirectMemorySize until then. Any later access to the cells
+	 * throws IllegalStateException. Paged storage deletes its page file. Mazes stored on the heap are unaffected.
+	 */
+	public void close() {
+		grid.close();
+	}
+
+	/**
+	 * Method which writes the maze as its size, storage, layout, entrance and exit, then the navigable bit of
+	 * every cell row by row from the first line of the maze. The bits are compressed as they are written and
+	 * sent in chunks of up to 64KB each led by its length, ending with a length of 0.
+	 * The entrance and exit tiles are written as objects so they keep their identity with other references to them.
+	 * 
+	 * @param out stream the maze is written to
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeByte(storageOf(grid).ordinal());
+		out.writeByte((layout instanceof ZOrderLayout ? Layout.Z_ORDER : Layout.ROW_MAJOR).ordinal());
+		out.writeInt(fileOrderIndex(getEntranceIndex()));
+		out.writeInt(fileOrderIndex(getExitIndex()));
+		out.writeObject(getEntranceIndex() == -1 ? null : entrance);
+		out.writeObject(getExitIndex() == -1 ? null : exit);
+
+		byte[] bits = new byte[(width + 7) / 8];
+		byte[] chunk = new byte[1 << 16];
+		Deflater deflater = new Deflater();
+		try {
+			for (int row=0; row<height; row++) {
+				Arrays.fill(bits, (byte) 0);
+				for (int x=0; x<width; x++) {
+					if (grid.isNavigable(layout.index(x, row))) {
+						bits[x >>> 3] |= 1 << (x & 7);
+					}
+				}
+				deflater.setInput(bits);
+				while (!deflater.needsInput()) {
+					writeChunk(out, deflater, chunk);
+				}
+			}
+			deflater.finish();
+			while (!deflater.finished()) {
+				writeChunk(out, deflater, chunk);
+			}
+		} finally {
+			deflater.end();
+		}
+		out.writeInt(0);
+	}
+
+	/**
+	 * Method which writes whatever compressed bytes the deflater has ready as one chunk
+	 * 
+	 * @param out stream the chunk is written to
+	 * @param deflater the deflater compressing the cells
+	 * @param chunk buffer for the compressed bytes
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	private static void writeChunk(ObjectOutputStream out, Deflater deflater, byte[] chunk) throws IOException {
+		int length = deflater.deflate(chunk);
+		if (length > 0) {
+			out.writeInt(length);
+			out.write(chunk, 0, length);
+		}
+	}
+
+	/**
+	 * Method which reads a maze written by writeObject into a new grid of the same storage and layout.
+	 * Runs of cells are filled a row at a time, so no object is created for each cell.
+	 * 
+	 * @param in stream the maze is read from
+	 * @throws IOException thrown when the stream cannot be read or does not hold a valid maze
+	 * @throws ClassNotFoundException thrown when the entrance or exit tile cannot be read
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int storage = in.readByte();
+		int order = in.readByte();
+		int toBeEntrance = in.readInt();
+		int toBeExit = in.readInt();
+		Tile entrance_in = (Tile) in.readObject();
+		Tile exit_in = (Tile) in.readObject();
+		long cellCount = (long) width * height;
+		if (width < 0 || height < 0 || storage < 0 || storage >= Storage.values().length
+				|| order < 0 || order >= Layout.values().length) {
+			throw new InvalidObjectException("Not a serialised maze");
+		}
+		if (toBeEntrance < -1 || toBeEntrance >= cellCount || toBeExit < -1 || toBeExit >= cellCount
+				|| (toBeEntrance == -1) != (entrance_in == null) || (toBeExit == -1) != (exit_in == null)) {
+			throw new InvalidObjectException("Entrance or exit is outside the maze");
+		}
+		layout = newLayout(Layout.values()[order], width);
+		try {
+			writableGrid = newGrid(Storage.values()[storage], layout, width, height);
+			grid = writableGrid;
+		} catch (InvalidMazeException e) {
+			throw new InvalidObjectException(e.getMessage());
+		}
+
+		// Rows are read one ahead, so the masks of a row can be worked out from the bits of the rows either side
+		byte[] above = new byte[(width + 7) / 8];
+		byte[] bits = new byte[above.length];
+		byte[] below = new byte[above.length];
+		byte[] chunk = new byte[1 << 16];
+		Inflater inflater = new Inflater();
+		try {
+			for (int row=0; row<height; row++) {
+				readBits(in, inflater, chunk, below);
+				fillRow(row, below);
+				if (row > 0) {
+					maskRow(row - 1, row > 1 ? above : null, bits, below);
+				}
+				byte[] oldAbove = above;
+				above = bits;
+				bits = below;
+				below = oldAbove;
+			}
+			if (height > 0) {
+				maskRow(height - 1, height > 1 ? above : null, bits, null);
+			}
+		} catch (DataFormatException e) {
+			throw new InvalidObjectException("Serialised maze is corrupt");
+		} finally {
+			inflater.end();
+		}
+		int length;
+		while ((length = in.readInt()) != 0) {
+			if (length < 0) {
+				throw new InvalidObjectException("Serialised maze is corrupt");
+			}
+			in.skipNBytes(length);
+		}
+
+		tiles = new TileGrid();
+		tileCache = null;
+		entrance = adoptTile(toBeEntrance, entrance_in);
+		exit = adoptTile(toBeExit, exit_in);
+	}
+
+	/**
+	 * Method which reads the navigable bits of one row, reading more chunks of the stream as the inflater needs them
+	 * 
+	 * @param in stream the maze is read from
+	 * @param inflater the inflater decompressing the cells
+	 * @param chunk buffer for the compressed bytes
+	 * @param bits filled with the bits of the row
+	 * @throws IOException thrown when the stream cannot be read or ends before the row
+	 * @throws DataFormatException thrown when the compressed bytes are corrupt
+	 */
+	private static void readBits(ObjectInputStream in, Inflater inflater, byte[] chunk, byte[] bits)
+										throws IOException, DataFormatException {
+		int filled = 0;
+		while (filled < bits.length) {
+			if (inflater.needsInput()) {
+				int length = in.readInt();
+				if (length <= 0 || length > chunk.length) {
+					throw new InvalidObjectException("Serialised maze is cut short");
+				}
+				in.readFully(chunk, 0, length);
+				inflater.setInput(chunk, 0, length);
+			}
+			else if (inflater.finished()) {
+				throw new InvalidObjectException("Serialised maze is cut short");
+			}
+			filled += inflater.inflate(bits, filled, bits.length - filled);
+		}
+	}
+
+	/**
+	 * Method which sets the navigable neighbour masks of one row from the bits of the row and the rows either side
+	 * 
+	 * @param row the row, 0 being the first line of the maze
+	 * @param above bits of the row before, or null for the first row
+	 * @param bits bits of the row
+	 * @param below bits of the row after, or null for the last row
+	 */
+	private void maskRow(int row, byte[] above, byte[] bits, byte[] below) {
+		if (!writableGrid.storesMasks()) {
+			return;
+		}
+		for (int x=0; x<width; x++) {
+			int mask = 0;
+			if (above != null && isSet(above, x)) {
+				mask |= 1 << Direction.NORTH.ordinal();
+			}
+			if (x + 1 < width && isSet(bits, x + 1)) {
+				mask |= 1 << Direction.EAST.ordinal();
+			}
+			if (below != null && isSet(below, x)) {
+				mask |= 1 << Direction.SOUTH.ordinal();
+			}
+			if (x > 0 && isSet(bits, x - 1)) {
+				mask |= 1 << Direction.WEST.ordinal();
+			}
+			writableGrid.setMask(layout.index(x, row), mask);
+		}
+	}
+
+	/**
+	 * Method which checks the navigable bit of a cell in a row
+	 * 
+	 * @param bits bits of the row
+	 * @param x the column
+	 * @return returns true if the cell is navigable
+	 */
+	private static boolean isSet(byte[] bits, int x) {
+		return (bits[x >>> 3] & (1 << (x & 7))) != 0;
+	}
+
+	/**
+	 * Method which fills one row of the grid from its navigable bits, a run of equal cells at a time
+	 * 
+	 * @param row the row, 0 being the first line of the maze
+	 * @param bits bit x & 7 of byte x / 8 is set when cell x is navigable
+	 */
+	private void fillRow(int row, byte[] bits) {
+		int start = 0;
+		while (start < width) {
+			boolean navigable = isSet(bits, start);
+			int end = start + 1;
+			while (end < width && isSet(bits, end) == navigable) {
+				end++;
+			}
+			byte code = (byte) (navigable ? Tile.Type.CORRIDOR : Tile.Type.WALL).ordinal();
+			if (layout.contiguousRows()) {
+				writableGrid.fill(layout.index(start, row), end - start, code);
+			}
+			else {
+				for (int x=start; x<end; x++) {
+					writableGrid.set(layout.index(x, row), code);
+				}
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * Method which puts a deserialised entrance or exit tile back on its cell, so it is the tile the maze returns there.
+	 * The cell takes the type of the tile, which for a region given its own entrance and exit
+	 * can be a corridor rather than an entrance or exit.
+	 * 
+	 * @param position row * width + x of the cell, or -1 if the maze has none
+	 * @param t the tile read from the stream
+	 * @return returns the tile, or null if the maze has none
+	 * @throws InvalidObjectException thrown when the tile is navigable and its cell is not, or the other way round
+	 */
+	private Tile adoptTile(int position, Tile t) throws InvalidObjectException {
+		if (position == -1) {
+			return null;
+		}
+		int index = layout.index(position % width, position / width);
+		if (t.isNavigable() != writableGrid.isNavigable(index)) {
+			throw new InvalidObjectException("Entrance or exit does not match the cells");
+		}
+		writableGrid.set(index, (byte) t.getType().ordinal());
+		if (tileCache == null) {
+			tileCache = new TileCache();
+		}
+		t.setIndex(index);
+		tileCache.put(index, t);
+		return t;
+	}
+
+	/**
+	 * Method which returns the storage a grid was created for, regions and lazily read mazes
+	 * being written out as packed storage
+	 * 
+	 * @param g the grid
+	 * @return returns the storage of the grid
+	 */
+	private static Storage storageOf(CellView g) {
+		if (g instanceof BitGrid) {
+			return Storage.BITMAP;
+		}
+		else if (g instanceof OffHeapGrid) {
+			return Storage.OFF_HEAP;
+		}
+		else if (g instanceof QuadTreeGrid) {
+			return Storage.QUADTREE;
+		}
+		else if (g instanceof PagedGrid) {
+			return Storage.PAGED;
+		}
+		return Storage.PACKED;
+	}
+	
+	/**
+	 * Method to convert the grid into a string.
+	 * This is done by checking the type code of each cell
+	 * 
+	 * @return returns the string which represents the 2-D maze as characters
+	 */
+	public String toString() {
+		StringBuilder mazeString = new StringBuilder();
+
+		for (int i=0; i<height; i++) {
+			mazeString.append(height - 1 - i).append("		");
+			for (int j=0; j<width; j++) {
+				mazeString.append(Tile.charFromCode(grid.get(layout.index(j, i)))).append(' ');
+			}
+			mazeString.append(String.format("\n"));
+		}
+
+		mazeString.append(String.format("\n"));
+		mazeString.append(" " + "		");
+
+		for (int i=0; i<width; i++) {
+			mazeString.append(i).append(' ');
+		}
+
+		return mazeString.toString();
+	}
+	
+}
@@ -0,0 +1,156 @@
+package maze;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Class which defines a container file holding many mazes back to back, so they can be read with a single open.
+ * The file starts with a magic number and version, and each maze follows as its length in bytes
+ * and then the maze in the binary format written by Maze.toBinary.
+ * Mazes are written and read one at a time, so only the maze being handled is held in memory.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class MazeContainer {
+
+	/**
+	 * Extension of maze container files
+	 */
+	public static final String EXTENSION = ".mzc";
+
+	private static final int MAGIC = 0x4D5A4300;
+	private static final short VERSION = 1;
+
+	/**
+	 * Constructor which is private since the class only holds the reader and writer
+	 */
+	private MazeContainer() {
+	}
+
+	/**
+	 * Class which appends mazes to a new container file
+	 */
+	public static class Writer implements Closeable {
+
+		private DataOutputStream out;
+		private long count;
+
+		/**
+		 * Constructor which creates the container file and writes its header
+		 *
+		 * @param s file path of the container to create
+		 * @throws IOException thrown when the path is not of a container file or the file cannot be written
+		 */
+		public Writer(String s) throws IOException {
+			if (!s.contains(EXTENSION)) {
+				throw new IOException("Invalid file type");
+			}
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(s), 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+		}
+
+		/**
+		 * Method which appends a maze to the container
+		 *
+		 * @param maze the maze to append
+		 * @throws NoEntranceException thrown when the maze has no entrance, which only happens for a region
+		 * @throws NoExitException thrown when the maze has no exit, which only happens for a region
+		 * @throws IOException thrown when the container cannot be written
+		 */
+		public void add(Maze maze) throws NoEntranceException, NoExitException, IOException {
+			if (maze.getEntranceIndex() == -1) {
+				throw new NoEntranceException();
+			}
+			if (maze.getExitIndex() == -1) {
+				throw new NoExitException();
+			}
+			long length = maze.getBinaryLength();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Maze is too large for a container");
+			}
+			out.writeInt((int) length);
+			maze.writeBinary(out);
+			count++;
+		}
+
+		/**
+		 * Method which returns the number of mazes written so far
+		 *
+		 * @return returns the number of mazes
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Class which reads the mazes of a container file in order
+	 */
+	public static class Reader implements Closeable {
+
+		private DataInputStream in;
+
+		/**
+		 * Constructor which opens a container file and checks its header
+		 *
+		 * @param s file path of the container
+		 * @throws InvalidMazeException thrown when the file is not a maze container
+		 * @throws IOException thrown when the file cannot be read
+		 */
+		public Reader(String s) throws InvalidMazeException, IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(Maze.checkMazeFile(s, EXTENSION)), 1 << 16));
+			try {
+				if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+					in.close();
+					throw new InvalidMazeException("Not a maze container file");
+				}
+			} catch (EOFException e) {
+				in.close();
+				throw new InvalidMazeException("Not a maze container file");
+			}
+		}
+
+		/**
+		 * Method which reads the next maze of the container
+		 *
+		 * @return returns the maze, or null when every maze has been read
+		 * @throws InvalidMazeException thrown when the maze is not valid or the container is cut short
+		 * @throws IOException thrown when the file cannot be read
+		 */
+		public Maze next() throws InvalidMazeException, IOException {
+			int length;
+			try {
+				length = in.readInt();
+			} catch (EOFException e) {
+				return null;
+			}
+			if (length < 0) {
+				throw new InvalidMazeException("Maze container is corrupt");
+			}
+			byte[] bytes = new byte[length];
+			try {
+				in.readFully(bytes);
+			} catch (EOFException e) {
+				throw new InvalidMazeException("Maze container is cut short");
+			}
+			return Maze.parseBinary(new ByteBuffer[] {ByteBuffer.wrap(bytes)}, Maze.Storage.PACKED, Maze.Layout.ROW_MAJOR);
+		}
+
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class which converts every text maze in a directory, and the directories inside it, to the binary format.
+ * Each binary maze is written next to its text maze with the extension changed.
+ * Run it with the directories to convert as arguments, for example java maze.MazeConverter ../mazes,
+ * or with --pack and a container file first to pack the mazes into one container instead,
+ * for example java maze.MazeConverter --pack all.mzc ../mazes
+ *
+ * @author Joshwin Sundarraj
+ */
+public class MazeConverter {
+
+	/**
+	 * Constructor which is private since the class only has static methods
+	 */
+	private MazeConverter() {
+	}
+
+	/**
+	 * Method which converts the mazes in each directory given
+	 *
+	 * @param args the directories to convert, after --pack and a container file to pack them instead
+	 * @throws IOException thrown when the container cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 2 && args[0].equals("--pack")) {
+			try (MazeContainer.Writer writer = new MazeContainer.Writer(args[1])) {
+				for (int i = 2; i < args.length; i++) {
+					packDirectory(new File(args[i]), writer);
+				}
+				System.out.println("Packed " + writer.getCount() + " mazes into " + args[1]);
+			}
+			return;
+		}
+		for (String directory : args) {
+			int converted = convertDirectory(new File(directory));
+			System.out.println("Converted " + converted + " mazes in " + directory);
+		}
+	}
+
+	/**
+	 * Method which converts every text maze in a directory and the directories inside it.
+	 * Files which are not valid mazes are reported and skipped.
+	 *
+	 * @param directory the directory to convert
+	 * @return returns the number of mazes converted
+	 */
+	public static int convertDirectory(File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return 0;
+		}
+		int converted = 0;
+		for (File file : files) {
+			if (file.isDirectory()) {
+				converted += convertDirectory(file);
+			}
+			else if (file.getName().endsWith(".txt")) {
+				try {
+					convert(file);
+					converted++;
+				} catch (InvalidMazeException | IOException e) {
+					System.err.println("Skipped " + file.getPath() + ": " + e.getMessage());
+				}
+			}
+		}
+		return converted;
+	}
+
+	/**
+	 * Method which appends every text maze in a directory and the directories inside it to a container.
+	 * Files which are not valid mazes are reported and skipped.
+	 *
+	 * @param directory the directory to pack
+	 * @param writer the container to append the mazes to
+	 * @return returns the number of mazes packed
+	 * @throws IOException thrown when the container cannot be written
+	 */
+	public static int packDirectory(File directory, MazeContainer.Writer writer) throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return 0;
+		}
+		Arrays.sort(files);
+		int packed = 0;
+		for (File file : files) {
+			if (file.isDirectory()) {
+				packed += packDirectory(file, writer);
+			}
+			else if (file.getName().endsWith(".txt")) {
+				Maze maze;
+				try {
+					maze = Maze.fromTxt(file.getPath());
+				} catch (InvalidMazeException | IOException e) {
+					System.err.println("Skipped " + file.getPath() + ": " + e.getMessage());
+					continue;
+				}
+				writer.add(maze);
+				packed++;
+			}
+		}
+		return packed;
+	}
+
+	/**
+	 * Method which converts one text maze to the binary format
+	 *
+	 * @param file the text maze
+	 * @return returns the binary maze file written
+	 * @throws InvalidMazeException thrown when the file is not a valid maze
+	 * @throws IOException thrown when the file cannot be read or the binary maze cannot be written
+	 */
+	public static File convert(File file) throws InvalidMazeException, IOException {
+		String path = file.getPath();
+		File binary = new File(path.substring(0, path.length() - ".txt".length()) + Maze.BINARY_EXTENSION);
+		try (Maze maze = Maze.fromTxt(path)) {
+			maze.toBinary(binary.getPath());
+		}
+		return binary;
+	}
+}
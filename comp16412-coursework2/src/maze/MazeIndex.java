@@ -0,0 +1,293 @@
+package maze;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Class which holds the byte offset of every row of a text maze file, with its size and entrance and exit,
+ * so single rows can be read without scanning the file.
+ * The index is kept in a sidecar file next to the maze, named after it with EXTENSION added.
+ * It is rebuilt whenever the size or modification time of the maze file no longer match the ones it was built for,
+ * or the file does not agree with it. Before the sidecar is used its row offsets are checked to rise by at least
+ * a row and a separator each and to stay inside the file, the entrance and exit are checked to be 'e' and 'x',
+ * and a CRC32C of the first and last rows and the rows of the entrance and exit is checked against the file,
+ * so an edit which keeps the size within the same modification time is caught without reading the whole file.
+ * An edit of some other row which keeps every row where it was is still only found when that row is read.
+ *
+ * @author Joshwin Sundarraj
+ */
+class MazeIndex {
+
+	/**
+	 * Extension added to the name of a maze file to name its index
+	 */
+	static final String EXTENSION = ".idx";
+
+	private static final int MAGIC = 0x4D5A4900;
+	private static final short VERSION = 2;
+	private static final int HEADER_LENGTH = 48;
+
+	private int width;
+	private int height;
+	private int entrance;
+	private int exit;
+	private LongBuffer offsets;
+
+	/**
+	 * Constructor which intialises an index
+	 *
+	 * @param width_in number of tiles in each row
+	 * @param height_in number of rows
+	 * @param entrance_in index of the entrance, row * width + x
+	 * @param exit_in index of the exit, row * width + x
+	 * @param offsets_in byte offset of the start of each row
+	 */
+	private MazeIndex(int width_in, int height_in, int entrance_in, int exit_in, LongBuffer offsets_in) {
+		width = width_in;
+		height = height_in;
+		entrance = entrance_in;
+		exit = exit_in;
+		offsets = offsets_in;
+	}
+
+	/**
+	 * Method which returns the index of a maze file, reading it from the sidecar file if it is up to date
+	 * and otherwise building it and writing it to the sidecar file.
+	 * The maze is only checked when the index is built.
+	 *
+	 * @param file the maze file
+	 * @param contents the contents of the maze file, mapped in order
+	 * @return returns the index
+	 * @throws InvalidMazeException thrown when the file does not hold a valid maze
+	 * @throws IOException thrown when the maze file cannot be read
+	 */
+	static MazeIndex forFile(File file, ByteBuffer[] contents) throws InvalidMazeException, IOException {
+		File sidecar = new File(file.getPath() + EXTENSION);
+		if (sidecar.isFile()) {
+			MazeIndex index = read(sidecar, file, contents);
+			if (index != null) {
+				return index;
+			}
+		}
+		MazeIndex index = build(file, contents);
+		try {
+			index.write(sidecar, file, contents);
+		} catch (IOException e) {
+			// The index still works without a sidecar file, it is just built again next time
+			sidecar.delete();
+		}
+		return index;
+	}
+
+	/**
+	 * Method which reads the index from a sidecar file, checking it against the maze file before it is used
+	 *
+	 * @param sidecar the sidecar file
+	 * @param file the maze file the index should belong to
+	 * @param contents the contents of the maze file, mapped in order
+	 * @return returns the index, or null if the sidecar file is not an index of the maze file as it is now
+	 * @throws IOException thrown when the sidecar file cannot be read
+	 */
+	private static MazeIndex read(File sidecar, File file, ByteBuffer[] contents) throws IOException {
+		ByteBuffer header;
+		try (FileChannel channel = FileChannel.open(sidecar.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_LENGTH) {
+				return null;
+			}
+			header = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION
+				|| header.getLong(8) != file.length() || header.getLong(16) != file.lastModified()) {
+			return null;
+		}
+		int width = header.getInt(24);
+		int height = header.getInt(28);
+		if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE
+				|| header.limit() != HEADER_LENGTH + 8L * height) {
+			return null;
+		}
+		header.position(HEADER_LENGTH);
+		MazeIndex index = new MazeIndex(width, height, header.getInt(32), header.getInt(36), header.slice().asLongBuffer());
+		if (!index.matches(contents, file.length()) || index.sampleCrc(contents) != header.getInt(40)) {
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * Method which checks that the rows of the index lie inside the file one after another
+	 * and that the entrance and exit are where the index says
+	 *
+	 * @param contents the contents of the maze file, mapped in order
+	 * @param length length of the maze file in bytes
+	 * @return returns true if the file agrees with the index
+	 */
+	private boolean matches(ByteBuffer[] contents, long length) {
+		long previous = -1 - width;
+		for (int row = 0; row < height; row++) {
+			long start = offsets.get(row);
+			if (start < previous + width + 1 || start > length - width) {
+				return false;
+			}
+			previous = start;
+		}
+		long cells = (long) width * height;
+		return entrance >= 0 && entrance < cells && exit >= 0 && exit < cells
+				&& RowScanner.byteAt(contents, offsets.get(entrance / width) + entrance % width) == 'e'
+				&& RowScanner.byteAt(contents, offsets.get(exit / width) + exit % width) == 'x';
+	}
+
+	/**
+	 * Method which works out a CRC32C of the first and last rows and the rows of the entrance and exit,
+	 * which is kept in the sidecar file to tell whether those rows have changed
+	 *
+	 * @param contents the contents of the maze file, mapped in order
+	 * @return returns the CRC of the rows
+	 */
+	private int sampleCrc(ByteBuffer[] contents) {
+		CRC32C crc = new CRC32C();
+		byte[] bytes = new byte[width];
+		for (int row : new int[] {0, height - 1, entrance / width, exit / width}) {
+			long start = offsets.get(row);
+			for (int x = 0; x < width; x++) {
+				bytes[x] = RowScanner.byteAt(contents, start + x);
+			}
+			crc.update(bytes);
+		}
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Method which builds the index by checking the maze file and then scanning it for the start of each row
+	 *
+	 * @param file the maze file
+	 * @param contents the contents of the maze file, mapped in order
+	 * @return returns the index
+	 * @throws InvalidMazeException thrown when the file does not hold a valid maze
+	 * @throws IOException thrown when the maze file cannot be read
+	 */
+	private static MazeIndex build(File file, ByteBuffer[] contents) throws InvalidMazeException, IOException {
+		MazeValidator.validate(file.getPath());
+		int width = (int) RowScanner.firstLineLength(contents);
+		if ((long) width * Maze.maxRows(width, file.length()) > Integer.MAX_VALUE) {
+			throw new InvalidMazeException("Maze has too many tiles");
+		}
+
+		long[] starts = new long[16];
+		int rows = 0;
+		int entrance = -1;
+		int exit = -1;
+		boolean lineStart = true;
+		boolean afterCarriageReturn = false;
+		long offset = 0;
+		for (ByteBuffer buffer : contents) {
+			for (int i = 0; i < buffer.limit(); i++, offset++) {
+				byte b = buffer.get(i);
+				if (b == '\n' && afterCarriageReturn) {
+					afterCarriageReturn = false;
+					continue;
+				}
+				afterCarriageReturn = b == '\r';
+				if (b == '\n' || b == '\r') {
+					lineStart = true;
+					continue;
+				}
+				if (lineStart) {
+					if (rows == starts.length) {
+						starts = Arrays.copyOf(starts, rows * 2);
+					}
+					starts[rows++] = offset;
+					lineStart = false;
+				}
+				if (b == 'e') {
+					entrance = (int) ((rows - 1) * (long) width + (offset - starts[rows - 1]));
+				}
+				else if (b == 'x') {
+					exit = (int) ((rows - 1) * (long) width + (offset - starts[rows - 1]));
+				}
+			}
+		}
+		return new MazeIndex(width, rows, entrance, exit, LongBuffer.wrap(starts, 0, rows).slice());
+	}
+
+	/**
+	 * Method which writes the index to a sidecar file
+	 *
+	 * @param sidecar the sidecar file
+	 * @param file the maze file the index belongs to
+	 * @param contents the contents of the maze file, mapped in order
+	 * @throws IOException thrown when the sidecar file cannot be written
+	 */
+	private void write(File sidecar, File file, ByteBuffer[] contents) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeShort(0);
+			out.writeLong(file.length());
+			out.writeLong(file.lastModified());
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeInt(entrance);
+			out.writeInt(exit);
+			out.writeInt(sampleCrc(contents));
+			out.write(new byte[HEADER_LENGTH - 44]);
+			for (int row = 0; row < height; row++) {
+				out.writeLong(offsets.get(row));
+			}
+		}
+	}
+
+	/**
+	 * Method which returns the number of tiles in each row
+	 *
+	 * @return returns the width of the maze
+	 */
+	int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Method which returns the number of rows
+	 *
+	 * @return returns the height of the maze
+	 */
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Method which returns the position of the entrance
+	 *
+	 * @return returns row * width + x of the entrance
+	 */
+	int getEntrance() {
+		return entrance;
+	}
+
+	/**
+	 * Method which returns the position of the exit
+	 *
+	 * @return returns row * width + x of the exit
+	 */
+	int getExit() {
+		return exit;
+	}
+
+	/**
+	 * Method which returns the byte offset of the start of each row
+	 *
+	 * @return returns the offsets, one for each row in order
+	 */
+	LongBuffer getOffsets() {
+		return offsets;
+	}
+}
@@ -0,0 +1,492 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class which keeps a loaded maze up to date with its text file as the file is edited.
+ * A hash of every row of the file is kept, and when the file changes only the rows whose hash differs
+ * are parsed, checked and written into the maze. The entrance and exit counts are kept up to date
+ * from the changed rows alone, so an edit which would make the maze invalid is rejected
+ * with the same exception Maze.fromTxt would throw, and the maze is left as it was.
+ * <p>
+ * reload() takes time in proportion to the size of the file however little of it changed, as every row is read
+ * and hashed to find out which rows changed. The start of every row is kept between reloads, so while the file
+ * keeps its length and line separators each row is hashed where it was, eight bytes at a time, without looking
+ * for line separators again. Parsing, checking, patching and the memory a reload takes are in proportion to
+ * the rows which changed. A caller which knows the rows it changed should use reloadRows, which reads only
+ * those rows and takes time in proportion to their number.
+ * The number and width of the rows must stay the same, a maze which changes size has to be loaded again.
+ * <p>
+ * Changed rows are written into the maze while holding the write half of a read-write lock.
+ * Anything reading the maze while the file is watched, such as a RouteFinder stepping through it,
+ * should hold readLock() while it does, so it never sees a reload half done.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class MazeReloader implements Closeable {
+
+	private static final byte ENTRANCE = (byte) Tile.Type.ENTRANCE.ordinal();
+	private static final byte EXIT = (byte) Tile.Type.EXIT.ordinal();
+	private static final long HASH_SEED = 0xcbf29ce484222325L;
+	private static final long HASH_PRIME = 0x100000001b3L;
+
+	/**
+	 * Defines what is told about reloads made while watching the file
+	 */
+	public interface Listener {
+
+		/**
+		 * Method called after the file has changed and the maze has been patched
+		 *
+		 * @param changedRows number of rows which were patched
+		 */
+		void reloaded(int changedRows);
+
+		/**
+		 * Method called when the changed file could not be read or does not hold a valid maze.
+		 * The maze is left as it was.
+		 *
+		 * @param e the reason the reload failed
+		 */
+		void failed(Exception e);
+	}
+
+	private File file;
+	private Maze maze;
+	private long[] rowHashes;
+	private long[] rowStarts;
+	private long fileLength;
+	private ReentrantReadWriteLock lock;
+	private WatchService watcher;
+	private Thread watchThread;
+
+	/**
+	 * Constructor which intialises the reloader for a maze loaded from a file,
+	 * hashing the rows of the file as it is now
+	 *
+	 * @param s file path the maze was loaded from
+	 * @param maze_in the maze, which must still match the file
+	 * @throws InvalidMazeException thrown when the file no longer has the size of the maze
+	 * @throws IOException thrown when the file cannot be read
+	 */
+	public MazeReloader(String s, Maze maze_in) throws InvalidMazeException, IOException {
+		file = new File(s);
+		maze = maze_in;
+		lock = new ReentrantReadWriteLock();
+		ByteBuffer[] contents = map();
+		fileLength = length(contents);
+		rowStarts = new long[maze.getHeight()];
+		findRows(contents, rowStarts);
+		rowHashes = new long[maze.getHeight()];
+		for (int row = 0; row < rowHashes.length; row++) {
+			rowHashes[row] = hashRow(contents, rowStarts[row]);
+		}
+	}
+
+	/**
+	 * Method which returns the maze kept up to date by the reloader
+	 *
+	 * @return returns the maze
+	 */
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/**
+	 * Method which returns the lock to hold while reading the maze, so that changed rows are never
+	 * written into it while it is being read. Reloads wait for every holder to let go before patching.
+	 *
+	 * @return returns the read half of the lock guarding the maze
+	 */
+	public Lock readLock() {
+		return lock.readLock();
+	}
+
+	/**
+	 * Method which reads the file again and patches the rows of the maze which have changed.
+	 * The whole file is read and hashed, so this takes time in proportion to its size.
+	 *
+	 * @return returns the number of rows which were patched
+	 * @throws InvalidMazeException thrown when the changed rows would make the maze invalid,
+	 * 								in which case the maze is not changed
+	 * @throws IOException thrown when the file cannot be read
+	 */
+	public synchronized int reload() throws InvalidMazeException, IOException {
+		ByteBuffer[] contents = map();
+		long length = length(contents);
+		long[] starts = rowStarts;
+		if (length != fileLength || !sameRows(contents, 0, starts.length)) {
+			// The line separators have moved, so the rows have to be found again
+			starts = new long[rowStarts.length];
+			findRows(contents, starts);
+		}
+		return patch(contents, length, starts, 0, starts.length);
+	}
+
+	/**
+	 * Method which reads some rows of the file again and patches those which have changed.
+	 * Only the given rows are read, so this takes time in proportion to their number however large the maze is.
+	 * Rows outside the range are taken to be unchanged, and if the file has changed length
+	 * the whole file is reloaded instead.
+	 *
+	 * @param firstRow the first row to read, 0 being the first line of the file
+	 * @param count number of rows to read
+	 * @return returns the number of rows which were patched
+	 * @throws IndexOutOfBoundsException thrown when the rows are not all in the maze
+	 * @throws InvalidMazeException thrown when the changed rows would make the maze invalid,
+	 * 								in which case the maze is not changed
+	 * @throws IOException thrown when the file cannot be read
+	 */
+	public synchronized int reloadRows(int firstRow, int count) throws IndexOutOfBoundsException,
+										InvalidMazeException, IOException {
+		if (firstRow < 0 || count < 0 || firstRow > rowStarts.length - count) {
+			throw new IndexOutOfBoundsException(String.format("Rows %d to %d are outside the maze",
+																firstRow, firstRow + count - 1));
+		}
+		ByteBuffer[] contents = map();
+		long length = length(contents);
+		if (length != fileLength || !sameRows(contents, firstRow, firstRow + count)) {
+			return reload();
+		}
+		return patch(contents, length, rowStarts, firstRow, firstRow + count);
+	}
+
+	/**
+	 * Method which starts watching the file on a background thread, reloading the maze whenever the file is
+	 * written or replaced. The listener is called on that thread once the lock has been let go.
+	 *
+	 * @param listener told about every reload
+	 * @throws IOException thrown when the directory of the file cannot be watched
+	 */
+	public synchronized void watch(Listener listener) throws IOException {
+		if (watcher != null) {
+			throw new IllegalStateException("Already watching " + file);
+		}
+		Path path = file.getAbsoluteFile().toPath();
+		Path name = path.getFileName();
+		watcher = FileSystems.getDefault().newWatchService();
+		path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+		WatchService service = watcher;
+		watchThread = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = service.take();
+					boolean changed = false;
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (name.equals(event.context())) {
+							changed = true;
+						}
+					}
+					key.reset();
+					if (changed) {
+						try {
+							listener.reloaded(reload());
+						} catch (InvalidMazeException | IOException e) {
+							listener.failed(e);
+						}
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				// Watching has been stopped
+			}
+		}, "maze-reloader");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	/**
+	 * Method which stops watching the file
+	 *
+	 * @throws IOException thrown when the watch service cannot be closed
+	 */
+	public synchronized void close() throws IOException {
+		if (watcher != null) {
+			watcher.close();
+			watchThread.interrupt();
+			watcher = null;
+			watchThread = null;
+		}
+	}
+
+	/**
+	 * Method which hashes a range of rows, checks the rows which changed, and writes them into the maze
+	 * while holding the write lock. The maze is only read before the lock is taken, so readers are held up
+	 * just for the writes.
+	 *
+	 * @param contents the contents of the file in order
+	 * @param length length of the file in bytes
+	 * @param starts byte offset of the start of each row of the file
+	 * @param from the first row to hash
+	 * @param to the row after the last row to hash
+	 * @return returns the number of rows which were patched
+	 * @throws InvalidMazeException thrown when the changed rows would make the maze invalid
+	 */
+	private int patch(ByteBuffer[] contents, long length, long[] starts, int from, int to)
+										throws InvalidMazeException {
+		int width = maze.getWidth();
+		int changed = 0;
+		int[] changedRows = new int[16];
+		long[] hashes = new long[16];
+		for (int row = from; row < to; row++) {
+			long hash = hashRow(contents, starts[row]);
+			if (hash != rowHashes[row]) {
+				if (changed == changedRows.length) {
+					changedRows = Arrays.copyOf(changedRows, changed * 2);
+					hashes = Arrays.copyOf(hashes, changed * 2);
+				}
+				changedRows[changed] = row;
+				hashes[changed++] = hash;
+			}
+		}
+		if (changed == 0) {
+			rowStarts = starts;
+			fileLength = length;
+			return 0;
+		}
+
+		byte[][] codes = new byte[changed][];
+		int entrances = 1;
+		int exits = 1;
+		int entranceIndex = maze.getEntranceIndex();
+		int exitIndex = maze.getExitIndex();
+		boolean entranceMoved = false;
+		boolean exitMoved = false;
+		for (int i = 0; i < changed; i++) {
+			int row = changedRows[i];
+			byte[] rowCodes = new byte[width];
+			for (int x = 0; x < width; x++) {
+				int index = maze.getIndex(x, maze.getHeight() - 1 - row);
+				byte oldCode = (byte) maze.getCellType(index).ordinal();
+				byte code = Tile.codeFromChar((char) RowScanner.byteAt(contents, starts[row] + x));
+				rowCodes[x] = code;
+				if (oldCode == ENTRANCE) {
+					entrances--;
+					entranceMoved = true;
+				}
+				else if (oldCode == EXIT) {
+					exits--;
+					exitMoved = true;
+				}
+				if (code == ENTRANCE) {
+					entrances++;
+					entranceIndex = index;
+					entranceMoved = true;
+				}
+				else if (code == EXIT) {
+					exits++;
+					exitIndex = index;
+					exitMoved = true;
+				}
+			}
+			codes[i] = rowCodes;
+		}
+
+		if (entrances == 0) {
+			throw new NoEntranceException();
+		}
+		else if (entrances > 1) {
+			throw new MultipleEntranceException();
+		}
+		else if (exits == 0) {
+			throw new NoExitException();
+		}
+		else if (exits > 1) {
+			throw new MultipleExitException();
+		}
+
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < changed; i++) {
+				maze.patchRow(changedRows[i], codes[i]);
+			}
+			if (entranceMoved || exitMoved) {
+				maze.moveEndpoints(entranceIndex, exitIndex);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		for (int i = 0; i < changed; i++) {
+			rowHashes[changedRows[i]] = hashes[i];
+		}
+		rowStarts = starts;
+		fileLength = length;
+		return changed;
+	}
+
+	/**
+	 * Method which maps the file into memory
+	 *
+	 * @return returns the contents of the file in order
+	 * @throws IOException thrown when the file cannot be read
+	 */
+	private ByteBuffer[] map() throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer[] buffers = new ByteBuffer[(int) ((size + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE)];
+			for (int i = 0; i < buffers.length; i++) {
+				long position = (long) i * Integer.MAX_VALUE;
+				buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position));
+			}
+			return buffers;
+		}
+	}
+
+	/**
+	 * Method which returns the length of the mapped file
+	 *
+	 * @param contents the contents of the file in order
+	 * @return returns the number of bytes in the file
+	 */
+	private static long length(ByteBuffer[] contents) {
+		long length = 0;
+		for (ByteBuffer buffer : contents) {
+			length += buffer.limit();
+		}
+		return length;
+	}
+
+	/**
+	 * Method which checks that rows of the file still end where they did, each followed by a single line separator,
+	 * so the starts of the rows found last time can be used again
+	 *
+	 * @param contents the contents of the file in order, which must be as long as it was
+	 * @param from the first row to check
+	 * @param to the row after the last row to check
+	 * @return returns true if every row in the range is where it was
+	 */
+	private boolean sameRows(ByteBuffer[] contents, int from, int to) {
+		int width = maze.getWidth();
+		for (int row = from; row < to; row++) {
+			long end = rowStarts[row] + width;
+			long next = row + 1 < rowStarts.length ? rowStarts[row + 1] : fileLength;
+			if (next == end) {
+				if (row + 1 < rowStarts.length) {
+					return false;
+				}
+				continue;
+			}
+			byte first = RowScanner.byteAt(contents, end);
+			if (next - end == 1 ? first != '\n' && first != '\r'
+					: next - end != 2 || first != '\r' || RowScanner.byteAt(contents, end + 1) != '\n') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method which finds the start of every row of the file
+	 *
+	 * @param contents the contents of the file in order
+	 * @param starts filled with the byte offset of each row
+	 * @throws RaggedMazeException thrown when a row is not as wide as the maze
+	 * @throws InvalidMazeException thrown when the file does not have as many rows as the maze
+	 */
+	private void findRows(ByteBuffer[] contents, long[] starts) throws InvalidMazeException {
+		int width = maze.getWidth();
+		int row = 0;
+		int column = 0;
+		boolean afterCarriageReturn = false;
+		long offset = 0;
+		for (ByteBuffer buffer : contents) {
+			for (int i = 0; i < buffer.limit(); i++, offset++) {
+				byte b = buffer.get(i);
+				if (b == '\n' && afterCarriageReturn) {
+					afterCarriageReturn = false;
+					continue;
+				}
+				afterCarriageReturn = b == '\r';
+				if (b == '\n' || b == '\r') {
+					row = endRow(row, column, width);
+					column = 0;
+					continue;
+				}
+				if (column == 0) {
+					if (row >= starts.length) {
+						throw new InvalidMazeException("Maze has changed size, load it again");
+					}
+					starts[row] = offset;
+				}
+				column++;
+			}
+		}
+		if (column > 0) {
+			row = endRow(row, column, width);
+		}
+		if (row != starts.length) {
+			throw new InvalidMazeException("Maze has changed size, load it again");
+		}
+	}
+
+	/**
+	 * Method which checks the width of a finished row
+	 *
+	 * @param row the row
+	 * @param column number of bytes in the row
+	 * @param width number of tiles in each row of the maze
+	 * @return returns the next row
+	 * @throws RaggedMazeException thrown when the row is not as wide as the maze
+	 */
+	private static int endRow(int row, int column, int width) throws RaggedMazeException {
+		if (column != width) {
+			throw new RaggedMazeException();
+		}
+		return row + 1;
+	}
+
+	/**
+	 * Method which hashes the bytes of a row eight at a time, multiplying by the FNV prime and rotating
+	 * after each word so every byte reaches every bit of the hash. It needs no objects.
+	 *
+	 * @param contents the contents of the file in order
+	 * @param start byte offset of the start of the row
+	 * @return returns the hash of the row
+	 */
+	private long hashRow(ByteBuffer[] contents, long start) {
+		int width = maze.getWidth();
+		long hash = HASH_SEED;
+		int i = (int) (start / Integer.MAX_VALUE);
+		int position = (int) (start - (long) i * Integer.MAX_VALUE);
+		ByteBuffer buffer = contents[i];
+		if (position + (long) width <= buffer.limit()) {
+			int end = position + width;
+			for (; position + 8 <= end; position += 8) {
+				hash = Long.rotateLeft((hash ^ buffer.getLong(position)) * HASH_PRIME, 31);
+			}
+			for (; position < end; position++) {
+				hash = Long.rotateLeft((hash ^ (buffer.get(position) & 0xFF)) * HASH_PRIME, 31);
+			}
+			return hash;
+		}
+
+		// The row runs over the end of one mapped buffer into the next, so its words are put together a byte at a time
+		long offset = start;
+		long end = start + width;
+		for (; offset + 8 <= end; offset += 8) {
+			long word = 0;
+			for (int k = 0; k < 8; k++) {
+				word = (word << 8) | (RowScanner.byteAt(contents, offset + k) & 0xFF);
+			}
+			hash = Long.rotateLeft((hash ^ word) * HASH_PRIME, 31);
+		}
+		for (; offset < end; offset++) {
+			hash = Long.rotateLeft((hash ^ (RowScanner.byteAt(contents, offset) & 0xFF)) * HASH_PRIME, 31);
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,190 @@
+package maze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class which defines a local store of mazes kept by the content hash of their binary form,
+ * so files such as saved routes can refer to a maze by its hash instead of holding a copy of it.
+ * Each maze is kept once in the directory of the store as its hash followed by Maze.BINARY_EXTENSION.
+ * Mazes read through the store are remembered while they are in use, so everything loaded for the same hash
+ * shares one Maze object. A maze added with put is not remembered, since its owner may still change or close it,
+ * and loading its hash reads the stored copy instead.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class MazeStore {
+
+	/**
+	 * Number of bytes in a content hash
+	 */
+	public static final int HASH_LENGTH = 32;
+
+	private File directory;
+	private Map<String, WeakReference<Maze>> loaded;
+
+	/**
+	 * Constructor which intialises a store kept in a directory, creating the directory if it does not exist
+	 *
+	 * @param s path of the directory of the store
+	 * @throws IOException thrown when the directory cannot be created
+	 */
+	public MazeStore(String s) throws IOException {
+		directory = new File(s);
+		Files.createDirectories(directory.toPath());
+		loaded = new HashMap<String, WeakReference<Maze>>();
+	}
+
+	/**
+	 * Method which adds a maze to the store, writing it only if the store does not hold it already
+	 *
+	 * @param maze the maze to add
+	 * @return returns the content hash of the maze
+	 * @throws NoEntranceException thrown when the maze has no entrance, which only happens for a region
+	 * @throws NoExitException thrown when the maze has no exit, which only happens for a region
+	 * @throws InvalidMazeException thrown when the entrance or exit is on a wall, which only happens for a region
+	 * @throws IOException thrown when the maze cannot be written to the store
+	 */
+	public synchronized byte[] put(Maze maze) throws NoEntranceException, NoExitException, InvalidMazeException,
+										IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			maze.writeBinary(out);
+		}
+		byte[] binary = bytes.toByteArray();
+		byte[] hash = hash(binary);
+		File file = fileFor(hash);
+		if (!file.isFile()) {
+			// Write to a temporary file first so a reader never sees half a maze
+			File temporary = File.createTempFile("maze", ".tmp", directory);
+			try {
+				Files.write(temporary.toPath(), binary);
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				temporary.delete();
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Method which returns the maze with a content hash, reading it from the store if it is not already in use
+	 *
+	 * @param hash the content hash of the maze
+	 * @return returns the maze, or null if the store does not hold it
+	 * @throws InvalidMazeException thrown when the file in the store does not match its hash
+	 * @throws IOException thrown when the maze cannot be read
+	 */
+	public synchronized Maze get(byte[] hash) throws InvalidMazeException, IOException {
+		Maze maze = recall(hash);
+		if (maze != null) {
+			return maze;
+		}
+		File file = fileFor(hash);
+		if (!file.isFile()) {
+			return null;
+		}
+		byte[] binary = Files.readAllBytes(file.toPath());
+		if (!MessageDigest.isEqual(hash, hash(binary))) {
+			throw new InvalidMazeException("Maze in the store does not match its hash");
+		}
+		maze = Maze.readBinary(new DataInputStream(new ByteArrayInputStream(binary)));
+		remember(hash, maze);
+		return maze;
+	}
+
+	/**
+	 * Method which reads a maze in the binary format, returning the maze already in use for the same content if
+	 * there is one, so a maze held in a file instead of referred to is still shared
+	 *
+	 * @param binary the maze in the binary format
+	 * @return returns the maze
+	 * @throws InvalidMazeException thrown when the bytes are not a binary maze
+	 * @throws IOException thrown when the maze cannot be read
+	 */
+	public synchronized Maze read(byte[] binary) throws InvalidMazeException, IOException {
+		byte[] hash = hash(binary);
+		Maze maze = recall(hash);
+		if (maze == null) {
+			maze = Maze.readBinary(new DataInputStream(new ByteArrayInputStream(binary)));
+			remember(hash, maze);
+		}
+		return maze;
+	}
+
+	/**
+	 * Method which returns the maze in use for a content hash
+	 *
+	 * @param hash the content hash
+	 * @return returns the maze, or null if none is in use
+	 */
+	private Maze recall(byte[] hash) {
+		WeakReference<Maze> reference = loaded.get(name(hash));
+		return reference == null ? null : reference.get();
+	}
+
+	/**
+	 * Method which remembers the maze in use for a content hash, forgetting mazes which are no longer in use
+	 *
+	 * @param hash the content hash
+	 * @param maze the maze
+	 */
+	private void remember(byte[] hash, Maze maze) {
+		loaded.values().removeIf(reference -> reference.get() == null);
+		loaded.put(name(hash), new WeakReference<Maze>(maze));
+	}
+
+	/**
+	 * Method which returns the file of the store holding a maze
+	 *
+	 * @param hash the content hash of the maze
+	 * @return returns the file
+	 * @throws IllegalArgumentException thrown when the hash is not HASH_LENGTH bytes long
+	 */
+	private File fileFor(byte[] hash) throws IllegalArgumentException {
+		if (hash.length != HASH_LENGTH) {
+			throw new IllegalArgumentException("Content hash must be " + HASH_LENGTH + " bytes");
+		}
+		return new File(directory, name(hash) + Maze.BINARY_EXTENSION);
+	}
+
+	/**
+	 * Method which returns the SHA-256 content hash of a maze in the binary format
+	 *
+	 * @param binary the maze in the binary format
+	 * @return returns the hash
+	 */
+	private static byte[] hash(byte[] binary) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(binary);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform has to provide SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Method which returns a content hash as hexadecimal digits
+	 *
+	 * @param hash the content hash
+	 * @return returns the digits
+	 */
+	private static String name(byte[] hash) {
+		StringBuilder digits = new StringBuilder(hash.length * 2);
+		for (byte b : hash) {
+			digits.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return digits.toString();
+	}
+}
@@ -0,0 +1,193 @@
+package maze;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class which checks a maze file in one pass without building a maze.
+ * Only the width of the first row, the number of entrances and exits and the position being read are kept,
+ * so the memory used does not depend on the size of the maze.
+ * A file passes exactly when Maze.fromTxt would load it, and the exception thrown is the one
+ * Maze.fromTxt would throw, with the line and column of the first problem added to its message.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class MazeValidator {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private int width;
+	private long line;
+	private int column;
+	private boolean afterCarriageReturn;
+	private int invalidColumn;
+	private int entrances;
+	private int exits;
+	private long secondEntranceLine;
+	private int secondEntranceColumn;
+	private long secondExitLine;
+	private int secondExitColumn;
+
+	/**
+	 * Constructor which intialises the validator at the start of a file
+	 */
+	private MazeValidator() {
+		width = -1;
+		line = 1;
+		invalidColumn = -1;
+	}
+
+	/**
+	 * Method which checks the maze file at a path
+	 *
+	 * @param s file path of the file containing the maze
+	 * @throws InvalidMazeException thrown when the file does not hold a valid maze
+	 * @throws FileNotFoundException thrown when the provided file does not exist
+	 * @throws IOException thrown when an invalid file path is provided or the file cannot be read
+	 */
+	public static void validate(String s) throws InvalidMazeException, FileNotFoundException, IOException {
+		File file = Maze.checkMazeFile(s, ".txt");
+		try (InputStream in = new FileInputStream(file)) {
+			validate(in);
+		}
+	}
+
+	/**
+	 * Method which checks a maze read from a stream. The stream is read to its end but not closed.
+	 *
+	 * @param in the stream holding the maze
+	 * @throws InvalidMazeException thrown when the stream does not hold a valid maze
+	 * @throws EOFException thrown when the stream is empty
+	 * @throws IOException thrown when the stream cannot be read
+	 */
+	public static void validate(InputStream in) throws InvalidMazeException, IOException {
+		MazeValidator validator = new MazeValidator();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		boolean empty = true;
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			if (read > 0) {
+				empty = false;
+			}
+			for (int i = 0; i < read; i++) {
+				validator.accept(buffer[i]);
+			}
+		}
+		if (empty) {
+			throw new EOFException("Cannot load from empty file");
+		}
+		validator.finish();
+	}
+
+	/**
+	 * Method which checks the next byte of the file
+	 *
+	 * @param b the byte
+	 * @throws InvalidMazeException thrown when the byte makes a row longer than the first row,
+	 * 								or ends a row which is too short or holds an invalid character
+	 */
+	private void accept(byte b) throws InvalidMazeException {
+		if (b == '\n') {
+			if (afterCarriageReturn) {
+				afterCarriageReturn = false;
+			}
+			else {
+				endLine();
+			}
+			return;
+		}
+		if (b == '\r') {
+			endLine();
+			afterCarriageReturn = true;
+			return;
+		}
+		afterCarriageReturn = false;
+		column++;
+		if (column == width + 1 && width != -1) {
+			throw new RaggedMazeException("Error: Rows of tiles are not the same length" + at(line, column));
+		}
+		switch (b) {
+			case 'e':
+				entrances++;
+				if (entrances == 2) {
+					secondEntranceLine = line;
+					secondEntranceColumn = column;
+				}
+				break;
+			case 'x':
+				exits++;
+				if (exits == 2) {
+					secondExitLine = line;
+					secondExitColumn = column;
+				}
+				break;
+			case '.':
+			case '#':
+				break;
+			default:
+				if (invalidColumn == -1) {
+					invalidColumn = column;
+				}
+		}
+	}
+
+	/**
+	 * Method which ends the current row.
+	 * A row of the wrong length is reported before an invalid character in it, as Maze.fromTxt does.
+	 *
+	 * @throws InvalidMazeException thrown when the row is too short or holds an invalid character
+	 */
+	private void endLine() throws InvalidMazeException {
+		if (width == -1) {
+			width = column;
+		}
+		else if (column != width) {
+			throw new RaggedMazeException("Error: Rows of tiles are not the same length" + at(line, column + 1));
+		}
+		if (invalidColumn != -1) {
+			throw new InvalidMazeException("Invalid character found" + at(line, invalidColumn));
+		}
+		line++;
+		column = 0;
+	}
+
+	/**
+	 * Method which checks the end of the file and the number of entrances and exits
+	 *
+	 * @throws InvalidMazeException thrown when the last row is invalid
+	 * 								or there is not exactly one entrance and exit
+	 */
+	private void finish() throws InvalidMazeException {
+		if (column > 0) {
+			endLine();
+		}
+		if (entrances == 0) {
+			throw new NoEntranceException("Error: No entrance found in " + (line - 1) + " lines");
+		}
+		else if (entrances > 1) {
+			throw new MultipleEntranceException("Error: Multiple entrances found"
+					+ at(secondEntranceLine, secondEntranceColumn));
+		}
+		else if (exits == 0) {
+			throw new NoExitException("Error: No exit found in " + (line - 1) + " lines");
+		}
+		else if (exits > 1) {
+			throw new MultipleExitException("Error: Multiple exits found" + at(secondExitLine, secondExitColumn));
+		}
+	}
+
+	/**
+	 * Method which describes a position in the file
+	 *
+	 * @param line line number, starting at 1
+	 * @param column column number, starting at 1
+	 * @return returns the position to add to an error message
+	 */
+	private static String at(long line, int column) {
+		return " at line " + line + ", column " + column;
+	}
+}
@@ -0,0 +1,85 @@
+package maze;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class which stores one byte per cell outside the Java heap, in a direct buffer.
+ * Each byte holds the type code of the cell in the low two bits and the mask of its
+ * navigable neighbours in the four bits above, as in ByteGrid.
+ * The buffer counts against the limit on direct memory set by -XX:MaxDirectMemorySize, which is the same
+ * as the largest heap size unless it is set, so very large mazes may need the limit raised.
+ * Closing the grid drops its reference to the buffer, but the memory is only given back once
+ * the garbage collector finds the buffer unreachable, as for any direct buffer.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class OffHeapGrid implements CellGrid {
+
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	private ByteBuffer cells;
+
+	/**
+	 * Constructor which intialises a grid of walls
+	 * 
+	 * @param cellCount number of cells in the grid
+	 */
+	OffHeapGrid(int cellCount) {
+		cells = ByteBuffer.allocateDirect(cellCount);
+		byte[] walls = new byte[Math.min(cellCount, 1 << 16)];
+		java.util.Arrays.fill(walls, WALL_CODE);
+		for (int i=0; i<cellCount; i+=walls.length) {
+			cells.put(i, walls, 0, Math.min(walls.length, cellCount - i));
+		}
+	}
+
+	public byte get(int index) {
+		return (byte) (buffer().get(index) & 3);
+	}
+
+	public void set(int index, byte code) {
+		ByteBuffer b = buffer();
+		b.put(index, (byte) ((b.get(index) & ~3) | code));
+	}
+
+	public boolean isNavigable(int index) {
+		return (buffer().get(index) & 3) != WALL_CODE;
+	}
+
+	public int getMask(int index) {
+		return (buffer().get(index) >>> 2) & 0xF;
+	}
+
+	public void setMask(int index, int mask) {
+		ByteBuffer b = buffer();
+		b.put(index, (byte) ((b.get(index) & 3) | (mask << 2)));
+	}
+
+	public boolean storesMasks() {
+		return true;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return true;
+	}
+
+	public void close() {
+		// The buffer is freed by its cleaner when it is next collected, not here
+		cells = null;
+	}
+
+	/**
+	 * Method which returns the buffer holding the cells
+	 * 
+	 * @return returns the buffer
+	 * @throws IllegalStateException thrown when the grid has been closed
+	 */
+	private ByteBuffer buffer() throws IllegalStateException {
+		ByteBuffer b = cells;
+		if (b == null) {
+			throw new IllegalStateException("Maze has been closed");
+		}
+		return b;
+	}
+
+}
@@ -0,0 +1,292 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class which keeps the cells of a maze in a file on disk, split into square pages of
+ * PAGE_SIDE by PAGE_SIDE cells, with only a bounded number of pages held in memory.
+ * Pages are read when a cell in them is first needed and the least recently used page
+ * is written back and dropped when the limit is reached.
+ * Each byte holds the type code of the cell in the low two bits and the mask of its
+ * navigable neighbours in the four bits above, as in ByteGrid.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class PagedGrid implements CellGrid {
+
+	static final int PAGE_BITS = 8;
+	static final int PAGE_SIDE = 1 << PAGE_BITS;
+	static final int PAGE_BYTES = PAGE_SIDE * PAGE_SIDE;
+	static final int DEFAULT_RESIDENT_PAGES = 64;
+
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	/**
+	 * Class which holds one page in memory and whether it differs from the copy on disk
+	 */
+	private static final class Page {
+
+		private byte[] cells;
+		private boolean dirty;
+
+		/**
+		 * Constructor which intialises a clean page
+		 * 
+		 * @param cells_in the cells of the page
+		 */
+		private Page(byte[] cells_in) {
+			cells = cells_in;
+			dirty = false;
+		}
+	}
+
+	private CellLayout layout;
+	private int pagesPerRow;
+	private int pageCount;
+	private int residentLimit;
+	private File file;
+	private FileChannel channel;
+	private LinkedHashMap<Integer, Page> resident;
+	private int lastPageId;
+	private Page lastPage;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Constructor which intialises a page file of walls
+	 * 
+	 * @param layout_in layout used to convert cell indices into columns and rows
+	 * @param width number of cells in each row
+	 * @param rows number of rows
+	 * @throws IOException thrown when the page file cannot be created
+	 */
+	PagedGrid(CellLayout layout_in, int width, int rows) throws IOException {
+		layout = layout_in;
+		pagesPerRow = (width + PAGE_SIDE - 1) >>> PAGE_BITS;
+		pageCount = pagesPerRow * ((rows + PAGE_SIDE - 1) >>> PAGE_BITS);
+		residentLimit = DEFAULT_RESIDENT_PAGES;
+		open();
+	}
+
+	public byte get(int index) {
+		return (byte) (cell(index) & 3);
+	}
+
+	public void set(int index, byte code) {
+		Page page = pageOf(index);
+		int offset = offsetOf(index);
+		page.cells[offset] = (byte) ((page.cells[offset] & ~3) | code);
+		page.dirty = true;
+	}
+
+	public boolean isNavigable(int index) {
+		return (cell(index) & 3) != WALL_CODE;
+	}
+
+	public int getMask(int index) {
+		return (cell(index) >>> 2) & 0xF;
+	}
+
+	public void setMask(int index, int mask) {
+		Page page = pageOf(index);
+		int offset = offsetOf(index);
+		page.cells[offset] = (byte) ((page.cells[offset] & 3) | (mask << 2));
+		page.dirty = true;
+	}
+
+	public boolean storesMasks() {
+		return true;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return false;
+	}
+
+	public void close() {
+		try {
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			channel = null;
+			resident = null;
+			lastPage = null;
+			file.delete();
+		}
+	}
+
+	/**
+	 * Method which sets how many pages may be held in memory at once
+	 * 
+	 * @param limit the number of pages, at least one
+	 */
+	void setResidentLimit(int limit) {
+		residentLimit = Math.max(1, limit);
+		while (resident.size() > residentLimit) {
+			Map.Entry<Integer, Page> eldest = resident.entrySet().iterator().next();
+			writeBack(eldest.getKey(), eldest.getValue());
+			resident.remove(eldest.getKey());
+		}
+		lastPage = null;
+	}
+
+	/**
+	 * Method which returns how many times a cell in a different page from the last cell used found its page in memory.
+	 * Cells in the same page as the last cell are not counted, so the counters stay off the path of every cell access.
+	 * Like the pages themselves, the counters are not safe to update from more than one thread.
+	 * 
+	 * @return returns the number of page cache hits
+	 */
+	long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Method which returns how many pages had to be loaded from disk
+	 * 
+	 * @return returns the number of page cache misses
+	 */
+	long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Method which returns the stored byte of a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the type code and mask of the cell
+	 */
+	private byte cell(int index) {
+		return pageOf(index).cells[offsetOf(index)];
+	}
+
+	/**
+	 * Method which returns the position of a cell within its page
+	 * 
+	 * @param index index of the cell
+	 * @return returns the offset of the cell in the page
+	 */
+	private int offsetOf(int index) {
+		int x = layout.x(index) & (PAGE_SIDE - 1);
+		int row = layout.row(index) & (PAGE_SIDE - 1);
+		return (row << PAGE_BITS) | x;
+	}
+
+	/**
+	 * Method which returns the page holding a cell, loading it from disk if it is not in memory
+	 * 
+	 * @param index index of the cell
+	 * @return returns the page
+	 * @throws IllegalStateException thrown when the grid has been closed
+	 * @throws UncheckedIOException thrown when the page file cannot be read or written
+	 */
+	private Page pageOf(int index) throws IllegalStateException, UncheckedIOException {
+		int pageId = (layout.row(index) >>> PAGE_BITS) * pagesPerRow + (layout.x(index) >>> PAGE_BITS);
+		if (lastPage != null && pageId == lastPageId) {
+			return lastPage;
+		}
+		if (resident == null) {
+			throw new IllegalStateException("Maze has been closed");
+		}
+		Page page = resident.get(pageId);
+		if (page == null) {
+			misses++;
+			page = new Page(readPage(pageId));
+			resident.put(pageId, page);
+		}
+		else {
+			hits++;
+		}
+		lastPageId = pageId;
+		lastPage = page;
+		return page;
+	}
+
+	/**
+	 * Method which reads a page from the page file.
+	 * Pages which have never been written are not in the file yet and are all walls.
+	 * 
+	 * @param pageId the number of the page
+	 * @return returns the cells of the page
+	 * @throws UncheckedIOException thrown when the page file cannot be read
+	 */
+	private byte[] readPage(int pageId) throws UncheckedIOException {
+		byte[] cells = new byte[PAGE_BYTES];
+		ByteBuffer buffer = ByteBuffer.wrap(cells);
+		long position = (long) pageId * PAGE_BYTES;
+		try {
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position + buffer.position());
+				if (read < 0) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (buffer.hasRemaining()) {
+			Arrays.fill(cells, buffer.position(), PAGE_BYTES, WALL_CODE);
+		}
+		return cells;
+	}
+
+	/**
+	 * Method which writes a page back to the page file if it has changed
+	 * 
+	 * @param pageId the number of the page
+	 * @param page the page to write
+	 * @throws UncheckedIOException thrown when the page file cannot be written
+	 */
+	private void writeBack(int pageId, Page page) throws UncheckedIOException {
+		if (!page.dirty) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(page.cells);
+		long position = (long) pageId * PAGE_BYTES;
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, position + buffer.position());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		page.dirty = false;
+	}
+
+	/**
+	 * Method which creates an empty page file and page cache
+	 * 
+	 * @throws IOException thrown when the page file cannot be created
+	 */
+	private void open() throws IOException {
+		file = File.createTempFile("maze", ".pages");
+		file.deleteOnExit();
+		channel = new RandomAccessFile(file, "rw").getChannel();
+		resident = new LinkedHashMap<Integer, Page>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+				if (size() <= residentLimit) {
+					return false;
+				}
+				writeBack(eldest.getKey(), eldest.getValue());
+				if (eldest.getValue() == lastPage) {
+					lastPage = null;
+				}
+				return true;
+			}
+		};
+		lastPage = null;
+		hits = 0;
+		misses = 0;
+	}
+
+}
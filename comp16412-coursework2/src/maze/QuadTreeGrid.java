@@ -0,0 +1,190 @@
+package maze;
+
+/**
+ * Class which stores the cells of a maze in a quadtree.
+ * The maze is padded to a square with a side which is a power of two, and any square block
+ * whose cells all have the same type is held as a single leaf, so open rooms and thick walls
+ * cost one node however large they are. Reading a cell walks down from the root in O(log n).
+ * Neighbour masks are worked out from the neighbouring cells when they are asked for
+ * rather than being stored, so they do not split uniform blocks.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class QuadTreeGrid implements CellGrid {
+
+	private static final byte WALL_CODE = (byte) Tile.Type.WALL.ordinal();
+
+	/**
+	 * Class which defines a node of the tree, either a leaf holding the type code of every cell
+	 * in its block or a branch with four children in the order top-left, top-right, bottom-left, bottom-right
+	 */
+	private static final class Node {
+
+		private byte code;
+		private Node[] children;
+
+		/**
+		 * Constructor which intialises a leaf
+		 * 
+		 * @param code_in type code of every cell in the block
+		 */
+		private Node(byte code_in) {
+			code = code_in;
+			children = null;
+		}
+	}
+
+	private CellLayout layout;
+	private int side;
+	private Node root;
+
+	/**
+	 * Constructor which intialises a tree holding a single block of walls
+	 * 
+	 * @param layout_in layout used to convert cell indices into columns and rows
+	 * @param width number of cells in each row
+	 * @param rows number of rows
+	 * @throws InvalidMazeException thrown when the padded square would not fit in an int
+	 */
+	QuadTreeGrid(CellLayout layout_in, int width, int rows) throws InvalidMazeException {
+		layout = layout_in;
+		if (width > (1 << 30) || rows > (1 << 30)) {
+			throw new InvalidMazeException("Maze is too large for quadtree storage");
+		}
+		side = 1;
+		while (side < width || side < rows) {
+			side <<= 1;
+		}
+		root = new Node(WALL_CODE);
+	}
+
+	public byte get(int index) {
+		return codeAt(layout.x(index), layout.row(index));
+	}
+
+	public void set(int index, byte code) {
+		set(root, side, layout.x(index), layout.row(index), code);
+	}
+
+	public boolean isNavigable(int index) {
+		return get(index) != WALL_CODE;
+	}
+
+	public int getMask(int index) {
+		int x = layout.x(index);
+		int row = layout.row(index);
+		int mask = 0;
+		if (row > 0 && codeAt(x, row - 1) != WALL_CODE) {
+			mask |= 1 << Maze.Direction.NORTH.ordinal();
+		}
+		if (x + 1 < side && codeAt(x + 1, row) != WALL_CODE) {
+			mask |= 1 << Maze.Direction.EAST.ordinal();
+		}
+		if (row + 1 < side && codeAt(x, row + 1) != WALL_CODE) {
+			mask |= 1 << Maze.Direction.SOUTH.ordinal();
+		}
+		if (x > 0 && codeAt(x - 1, row) != WALL_CODE) {
+			mask |= 1 << Maze.Direction.WEST.ordinal();
+		}
+		return mask;
+	}
+
+	public void setMask(int index, int mask) {
+		// Masks are worked out from the neighbouring cells
+	}
+
+	public boolean storesMasks() {
+		return false;
+	}
+
+	public boolean allowsConcurrentWrites() {
+		return false;
+	}
+
+	public void close() {
+		// Nothing to release, the nodes are collected with the maze
+	}
+
+	/**
+	 * Method which returns the side of the uniform block holding a cell
+	 * 
+	 * @param index index of the cell
+	 * @return returns the side of the leaf containing the cell
+	 */
+	int blockSide(int index) {
+		int x = layout.x(index);
+		int row = layout.row(index);
+		Node node = root;
+		int size = side;
+		while (node.children != null) {
+			size >>>= 1;
+			node = node.children[child(x, row, size)];
+		}
+		return size;
+	}
+
+	/**
+	 * Method which returns the type code of the cell at a column and row
+	 * 
+	 * @param x column of the cell
+	 * @param row row of the cell
+	 * @return returns the type code of the cell
+	 */
+	private byte codeAt(int x, int row) {
+		Node node = root;
+		int size = side;
+		while (node.children != null) {
+			size >>>= 1;
+			node = node.children[child(x, row, size)];
+		}
+		return node.code;
+	}
+
+	/**
+	 * Method which sets the type code of a cell below a node, splitting leaves on the way down
+	 * and merging children which have become the same on the way back up
+	 * 
+	 * @param node node whose block contains the cell
+	 * @param size side of the node's block
+	 * @param x column of the cell
+	 * @param row row of the cell
+	 * @param code the new type code
+	 */
+	private static void set(Node node, int size, int x, int row, byte code) {
+		if (node.children == null) {
+			if (node.code == code) {
+				return;
+			}
+			if (size == 1) {
+				node.code = code;
+				return;
+			}
+			node.children = new Node[] {
+				new Node(node.code), new Node(node.code), new Node(node.code), new Node(node.code)
+			};
+		}
+		int half = size >>> 1;
+		set(node.children[child(x, row, half)], half, x, row, code);
+
+		for (Node child: node.children) {
+			if (child.children != null || child.code != code) {
+				return;
+			}
+		}
+		node.children = null;
+		node.code = code;
+	}
+
+	/**
+	 * Method which returns which child of a node holds a cell
+	 * 
+	 * @param x column of the cell
+	 * @param row row of the cell
+	 * @param half side of the children's blocks
+	 * @return returns the position of the child, 0 to 3
+	 */
+	private static int child(int x, int row, int half) {
+		return ((row & half) != 0 ? 2 : 0) + ((x & half) != 0 ? 1 : 0);
+	}
+
+}
@@ -0,0 +1,86 @@
+package maze;
+
+/**
+ * Class which presents a rectangle of another grid as a grid of its own, without copying any cells.
+ * Cells of the region are indexed row by row within the rectangle and are mapped onto the
+ * cells of the underlying grid on every access. Neighbour masks are those of the underlying
+ * grid with the bits leading out of the rectangle cleared. The region is a CellView rather than a CellGrid,
+ * so it offers no way to write the cells it shares.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class RegionGrid implements CellView {
+
+	private static final int NORTH_BIT = 1 << Maze.Direction.NORTH.ordinal();
+	private static final int EAST_BIT = 1 << Maze.Direction.EAST.ordinal();
+	private static final int SOUTH_BIT = 1 << Maze.Direction.SOUTH.ordinal();
+	private static final int WEST_BIT = 1 << Maze.Direction.WEST.ordinal();
+
+	private CellView base;
+	private CellLayout baseLayout;
+	private int left;
+	private int top;
+	private int width;
+	private int height;
+
+	/**
+	 * Constructor which intialises the rectangle of the underlying grid the region covers
+	 * 
+	 * @param base_in the grid holding the cells
+	 * @param baseLayout_in the layout of the grid holding the cells
+	 * @param left_in column of the underlying grid where the region starts
+	 * @param top_in row of the underlying grid where the region starts
+	 * @param width_in number of columns in the region
+	 * @param height_in number of rows in the region
+	 */
+	RegionGrid(CellView base_in, CellLayout baseLayout_in, int left_in, int top_in, int width_in, int height_in) {
+		base = base_in;
+		baseLayout = baseLayout_in;
+		left = left_in;
+		top = top_in;
+		width = width_in;
+		height = height_in;
+	}
+
+	public byte get(int index) {
+		return base.get(baseIndex(index));
+	}
+
+	public boolean isNavigable(int index) {
+		return base.isNavigable(baseIndex(index));
+	}
+
+	public int getMask(int index) {
+		int x = index % width;
+		int row = index / width;
+		int mask = base.getMask(baseLayout.index(left + x, top + row));
+		if (row == 0) {
+			mask &= ~NORTH_BIT;
+		}
+		if (row == height - 1) {
+			mask &= ~SOUTH_BIT;
+		}
+		if (x == width - 1) {
+			mask &= ~EAST_BIT;
+		}
+		if (x == 0) {
+			mask &= ~WEST_BIT;
+		}
+		return mask;
+	}
+
+	public void close() {
+		// The cells belong to the underlying grid, which is closed with its own maze
+	}
+
+	/**
+	 * Method which returns the index in the underlying grid of a cell of the region
+	 * 
+	 * @param index index of the cell within the region
+	 * @return returns the index of the same cell in the underlying grid
+	 */
+	private int baseIndex(int index) {
+		return baseLayout.index(left + index % width, top + index / width);
+	}
+
+}
@@ -0,0 +1,50 @@
+package maze;
+
+/**
+ * Class which orders cells row by row, so the index of a cell is row * width + x
+ * 
+ * @author Joshwin Sundarraj
+ */
+class RowMajorLayout implements CellLayout {
+
+	private int width;
+
+	/**
+	 * Constructor which intialises the width of the rows
+	 * 
+	 * @param width_in number of cells in each row
+	 */
+	RowMajorLayout(int width_in) {
+		width = width_in;
+	}
+
+	public int index(int x, int row) {
+		return row * width + x;
+	}
+
+	public int x(int index) {
+		return index % width;
+	}
+
+	public int row(int index) {
+		return index / width;
+	}
+
+	public int adjacent(int index, Maze.Direction d) {
+		switch (d) {
+			case NORTH: return index - width;
+			case SOUTH: return index + width;
+			case EAST: return index + 1;
+			default: return index - 1;
+		}
+	}
+
+	public long cellCount(int height) {
+		return (long) width * height;
+	}
+
+	public boolean contiguousRows() {
+		return true;
+	}
+
+}
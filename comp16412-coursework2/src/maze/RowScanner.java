@@ -0,0 +1,282 @@
+package maze;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class which scans the raw bytes of a maze file straight into a grid, without decoding them into lines.
+ * Lines end at a line feed, a carriage return or both, the same as BufferedReader.readLine,
+ * and a scan can be fed the file in several buffers since its position is kept between them.
+ *
+ * @author Joshwin Sundarraj
+ */
+class RowScanner {
+
+	private static final byte ENTRANCE = (byte) Tile.Type.ENTRANCE.ordinal();
+	private static final byte EXIT = (byte) Tile.Type.EXIT.ordinal();
+
+	private CellGrid grid;
+	private CellLayout layout;
+	private int width;
+	private int maxRows;
+	private int row;
+	private int column;
+	private boolean afterCarriageReturn;
+	private boolean invalidCharacter;
+	private int entrances;
+	private int exits;
+	private int entranceIndex;
+	private int exitIndex;
+
+	/**
+	 * Constructor which intialises the grid the scanned cells are written to
+	 *
+	 * @param grid_in the grid the cells are written to
+	 * @param layout_in the layout of the cells in the grid
+	 * @param width_in number of tiles in each row
+	 * @param firstRow_in row of the maze the first scanned line belongs to
+	 * @param maxRows_in number of rows the grid has room for
+	 */
+	RowScanner(CellGrid grid_in, CellLayout layout_in, int width_in, int firstRow_in, int maxRows_in) {
+		grid = grid_in;
+		layout = layout_in;
+		width = width_in;
+		row = firstRow_in;
+		maxRows = maxRows_in;
+		entranceIndex = -1;
+		exitIndex = -1;
+	}
+
+	/**
+	 * Method which finds the length of the first line of a file
+	 *
+	 * @param buffers the contents of the file in order
+	 * @return returns the number of bytes before the first line separator
+	 */
+	static long firstLineLength(ByteBuffer[] buffers) {
+		long length = 0;
+		for (ByteBuffer buffer : buffers) {
+			for (int i = buffer.position(); i < buffer.limit(); i++) {
+				byte b = buffer.get(i);
+				if (b == '\n' || b == '\r') {
+					return length;
+				}
+				length++;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Method which scans the bytes of a buffer from its position to its limit into the grid
+	 *
+	 * @param buffer the bytes to scan
+	 * @throws InvalidMazeException thrown when a line is not as long as the first line
+	 * 								or an invalid character is found
+	 */
+	void scan(ByteBuffer buffer) throws InvalidMazeException {
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				if (afterCarriageReturn) {
+					afterCarriageReturn = false;
+				}
+				else {
+					endLine();
+				}
+			}
+			else if (b == '\r') {
+				endLine();
+				afterCarriageReturn = true;
+			}
+			else {
+				afterCarriageReturn = false;
+				if (column == width || row >= maxRows) {
+					throw new RaggedMazeException("Error: Rows of tiles are not the same length" + atLine());
+				}
+				if (!isMazeCharacter((char) b)) {
+					invalidCharacter = true;
+				}
+				else {
+					int index = layout.index(column, row);
+					byte code = Tile.codeFromChar((char) b);
+					grid.set(index, code);
+					if (code == ENTRANCE) {
+						entrances++;
+						entranceIndex = index;
+					}
+					else if (code == EXIT) {
+						exits++;
+						exitIndex = index;
+					}
+				}
+				column++;
+			}
+		}
+	}
+
+	/**
+	 * Method which scans the bytes between two positions of a file split into several buffers
+	 *
+	 * @param buffers the contents of the file in order, each but the last Integer.MAX_VALUE bytes long
+	 * @param start position of the first byte to scan
+	 * @param end position after the last byte to scan
+	 * @throws InvalidMazeException thrown when a line is not as long as the first line
+	 * 								or an invalid character is found
+	 */
+	void scan(ByteBuffer[] buffers, long start, long end) throws InvalidMazeException {
+		for (int i = (int) (start / Integer.MAX_VALUE); i < buffers.length; i++) {
+			long offset = (long) i * Integer.MAX_VALUE;
+			if (offset >= end) {
+				break;
+			}
+			ByteBuffer piece = buffers[i].duplicate();
+			piece.limit((int) Math.min(piece.limit(), end - offset));
+			piece.position((int) Math.max(0, start - offset));
+			scan(piece);
+		}
+	}
+
+	/**
+	 * Method which counts the lines ending between two positions of a file split into several buffers.
+	 * The position before start must not be a carriage return.
+	 *
+	 * @param buffers the contents of the file in order, each but the last Integer.MAX_VALUE bytes long
+	 * @param start position of the first byte to count from
+	 * @param end position after the last byte to count
+	 * @return returns the number of line separators
+	 */
+	static int countLines(ByteBuffer[] buffers, long start, long end) {
+		int lines = 0;
+		byte previous = 0;
+		for (long position = start; position < end; position++) {
+			byte b = byteAt(buffers, position);
+			if (b == '\r' || (b == '\n' && previous != '\r')) {
+				lines++;
+			}
+			previous = b;
+		}
+		return lines;
+	}
+
+	/**
+	 * Method which returns the byte at a position of a file split into several buffers
+	 *
+	 * @param buffers the contents of the file in order, each but the last Integer.MAX_VALUE bytes long
+	 * @param position position of the byte
+	 * @return returns the byte
+	 */
+	static byte byteAt(ByteBuffer[] buffers, long position) {
+		return buffers[(int) (position / Integer.MAX_VALUE)].get((int) (position % Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Method which adds the counts of a scan of the following part of the file to this scan
+	 *
+	 * @param next the scan of the lines straight after the lines of this scan
+	 */
+	void add(RowScanner next) {
+		if (next.entrances > 0) {
+			entranceIndex = next.entranceIndex;
+		}
+		if (next.exits > 0) {
+			exitIndex = next.exitIndex;
+		}
+		entrances += next.entrances;
+		exits += next.exits;
+		row = next.row;
+	}
+
+	/**
+	 * Method which ends the scan, counting a last line that has no line separator after it
+	 *
+	 * @throws InvalidMazeException thrown when the last line is not as long as the first line
+	 * 								or contains an invalid character
+	 */
+	void finish() throws InvalidMazeException {
+		if (column > 0) {
+			endLine();
+		}
+	}
+
+	/**
+	 * Method which ends the current line.
+	 * A line of the wrong length is reported before any invalid character in it, as readLine would.
+	 *
+	 * @throws InvalidMazeException thrown when the line is not as long as the first line
+	 * 								or contains an invalid character
+	 */
+	private void endLine() throws InvalidMazeException {
+		if (column != width) {
+			throw new RaggedMazeException("Error: Rows of tiles are not the same length" + atLine());
+		}
+		if (invalidCharacter) {
+			throw new InvalidMazeException("Invalid character found" + atLine());
+		}
+		row++;
+		column = 0;
+	}
+
+	/**
+	 * Method which describes the line being scanned, which is the same however the file was split
+	 *
+	 * @return returns the position to add to an error message
+	 */
+	private String atLine() {
+		return " at line " + (row + 1);
+	}
+
+	/**
+	 * Method which checks whether a character stands for a tile
+	 *
+	 * @param c the character
+	 * @return returns true if the character is one of the tile characters
+	 */
+	private static boolean isMazeCharacter(char c) {
+		return c == '.' || c == '#' || c == 'e' || c == 'x';
+	}
+
+	/**
+	 * Method which returns the number of complete rows scanned so far, counting from the first row
+	 *
+	 * @return returns the row the next line would belong to
+	 */
+	int getRow() {
+		return row;
+	}
+
+	/**
+	 * Method which returns the number of entrances scanned
+	 *
+	 * @return returns the number of entrances
+	 */
+	int getEntrances() {
+		return entrances;
+	}
+
+	/**
+	 * Method which returns the number of exits scanned
+	 *
+	 * @return returns the number of exits
+	 */
+	int getExits() {
+		return exits;
+	}
+
+	/**
+	 * Method which returns the index of the last entrance scanned
+	 *
+	 * @return returns the index of the entrance, or -1 if there is none
+	 */
+	int getEntranceIndex() {
+		return entranceIndex;
+	}
+
+	/**
+	 * Method which returns the index of the last exit scanned
+	 *
+	 * @return returns the index of the exit, or -1 if there is none
+	 */
+	int getExitIndex() {
+		return exitIndex;
+	}
+}
@@ -0,0 +1,149 @@
+package maze;
+
+/**
+ * Class which writes runs of cells of one type into a grid, row by row from the first line of the maze.
+ * Each run is split where it crosses the end of a row and written with a single fill where the layout allows it.
+ *
+ * @author Joshwin Sundarraj
+ */
+class RunDecoder {
+
+	private static final byte ENTRANCE = (byte) Tile.Type.ENTRANCE.ordinal();
+	private static final byte EXIT = (byte) Tile.Type.EXIT.ordinal();
+
+	private CellGrid grid;
+	private CellLayout layout;
+	private int width;
+	private int height;
+	private int x;
+	private int row;
+	private long entrances;
+	private long exits;
+	private int entranceIndex;
+	private int exitIndex;
+
+	/**
+	 * Constructor which intialises the grid the runs are written to
+	 *
+	 * @param grid_in the grid the cells are written to
+	 * @param layout_in the layout of the cells in the grid
+	 * @param width_in number of tiles in each row
+	 * @param height_in number of rows
+	 */
+	RunDecoder(CellGrid grid_in, CellLayout layout_in, int width_in, int height_in) {
+		grid = grid_in;
+		layout = layout_in;
+		width = width_in;
+		height = height_in;
+		entranceIndex = -1;
+		exitIndex = -1;
+	}
+
+	/**
+	 * Method which writes the next run of cells
+	 *
+	 * @param count number of cells in the run
+	 * @param code the type code of the cells
+	 * @param withinRow true if the run must end by the end of the current row
+	 * @throws InvalidMazeException thrown when the run goes past the end of the row or maze
+	 */
+	void run(long count, byte code, boolean withinRow) throws InvalidMazeException {
+		if (count <= 0 || (withinRow && count > width - x)) {
+			throw new RaggedMazeException();
+		}
+		if (code == ENTRANCE) {
+			entrances += count;
+			entranceIndex = layout.index(x, row);
+		}
+		else if (code == EXIT) {
+			exits += count;
+			exitIndex = layout.index(x, row);
+		}
+		while (count > 0) {
+			if (row >= height) {
+				throw new InvalidMazeException("Maze has more tiles than its height allows");
+			}
+			int length = (int) Math.min(count, width - x);
+			if (layout.contiguousRows()) {
+				grid.fill(layout.index(x, row), length, code);
+			}
+			else {
+				for (int i = x; i < x + length; i++) {
+					grid.set(layout.index(i, row), code);
+				}
+			}
+			count -= length;
+			x += length;
+			if (x == width && !withinRow) {
+				endRow();
+			}
+		}
+	}
+
+	/**
+	 * Method which ends the current row
+	 *
+	 * @throws RaggedMazeException thrown when the row has not been filled
+	 */
+	void endRow() throws RaggedMazeException {
+		if (x != width) {
+			throw new RaggedMazeException();
+		}
+		x = 0;
+		row++;
+	}
+
+	/**
+	 * Method which returns the number of rows filled so far
+	 *
+	 * @return returns the number of complete rows
+	 */
+	int getRow() {
+		return row;
+	}
+
+	/**
+	 * Method which returns whether the current row has been started but not filled
+	 *
+	 * @return returns true if part of a row has been written
+	 */
+	boolean inRow() {
+		return x != 0;
+	}
+
+	/**
+	 * Method which returns the number of entrances written, or Integer.MAX_VALUE if there are more than that
+	 *
+	 * @return returns the number of entrances
+	 */
+	int getEntrances() {
+		return (int) Math.min(entrances, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Method which returns the number of exits written, or Integer.MAX_VALUE if there are more than that
+	 *
+	 * @return returns the number of exits
+	 */
+	int getExits() {
+		return (int) Math.min(exits, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Method which returns the index of the first cell of the last entrance run
+	 *
+	 * @return returns the index of the entrance, or -1 if there is none
+	 */
+	int getEntranceIndex() {
+		return entranceIndex;
+	}
+
+	/**
+	 * Method which returns the index of the first cell of the last exit run
+	 *
+	 * @return returns the index of the exit, or -1 if there is none
+	 */
+	int getExitIndex() {
+		return exitIndex;
+	}
+}
@@ -0,0 +1,135 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Class which maps the index of a cell to the tile handed out for it, keeping the indices and tiles
+ * in two open-addressed arrays so that looking up a tile boxes nothing and adding one creates no entry object.
+ * A key is found by linear probing from a Fibonacci hash of the index, and removing a key shifts the keys
+ * after it back, so no markers for removed keys build up.
+ *
+ * @author Joshwin Sundarraj
+ */
+class TileCache {
+
+	private static final int EMPTY = -1;
+
+	private int[] keys;
+	private Tile[] tiles;
+	private int size;
+	private int shift;
+
+	/**
+	 * Constructor which intialises an empty cache
+	 */
+	TileCache() {
+		keys = new int[16];
+		Arrays.fill(keys, EMPTY);
+		tiles = new Tile[16];
+		shift = Integer.SIZE - 4;
+	}
+
+	/**
+	 * Method which returns the tile handed out for a cell
+	 *
+	 * @param index index of the cell
+	 * @return returns the tile, or null if none has been handed out
+	 */
+	Tile get(int index) {
+		int mask = keys.length - 1;
+		for (int slot = slot(index); ; slot = (slot + 1) & mask) {
+			if (keys[slot] == index) {
+				return tiles[slot];
+			}
+			if (keys[slot] == EMPTY) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Method which records the tile handed out for a cell, replacing any tile recorded before
+	 *
+	 * @param index index of the cell
+	 * @param t the tile
+	 */
+	void put(int index, Tile t) {
+		if (2 * (size + 1) > keys.length) {
+			grow();
+		}
+		int mask = keys.length - 1;
+		int slot = slot(index);
+		while (keys[slot] != EMPTY && keys[slot] != index) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY) {
+			keys[slot] = index;
+			size++;
+		}
+		tiles[slot] = t;
+	}
+
+	/**
+	 * Method which forgets the tile handed out for a cell
+	 *
+	 * @param index index of the cell
+	 * @return returns the tile which was recorded, or null if there was none
+	 */
+	Tile remove(int index) {
+		int mask = keys.length - 1;
+		int slot = slot(index);
+		while (keys[slot] != index) {
+			if (keys[slot] == EMPTY) {
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+		Tile removed = tiles[slot];
+		int hole = slot;
+		for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+			// A key can fill the hole if the hole lies between its home slot and where it is now
+			if (((next - slot(keys[next])) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				tiles[hole] = tiles[next];
+				hole = next;
+			}
+		}
+		keys[hole] = EMPTY;
+		tiles[hole] = null;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Method which returns the slot a cell index is first looked for in
+	 *
+	 * @param index index of the cell
+	 * @return returns the home slot of the index
+	 */
+	private int slot(int index) {
+		return (index * 0x9E3779B9) >>> shift;
+	}
+
+	/**
+	 * Method which doubles the arrays, putting every key back in its slot of the larger arrays
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		Tile[] oldTiles = tiles;
+		keys = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		tiles = new Tile[keys.length];
+		shift--;
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(oldKeys[i]);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				tiles[slot] = oldTiles[i];
+			}
+		}
+	}
+}
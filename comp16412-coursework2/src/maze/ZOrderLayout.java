@@ -0,0 +1,111 @@
+package maze;
+
+/**
+ * Class which orders cells along a Z-order (Morton) curve, so cells which are close
+ * in both directions are close in memory and vertical moves stay within a few cache lines.
+ * The maze is split into square blocks of BLOCK_SIDE cells, the blocks are stored row by row,
+ * and the cells of each block are stored in Z-order by interleaving the bits of the column and row.
+ * Blocks on the right and bottom edges are padded with cells outside the maze.
+ * 
+ * @author Joshwin Sundarraj
+ */
+class ZOrderLayout implements CellLayout {
+
+	private static final int BLOCK_BITS = 5;
+	private static final int BLOCK_SIDE = 1 << BLOCK_BITS;
+	private static final int BLOCK_MASK = (1 << (2 * BLOCK_BITS)) - 1;
+	private static final int X_BITS = 0x55555555 & BLOCK_MASK;
+	private static final int ROW_BITS = 0xAAAAAAAA & BLOCK_MASK;
+
+	private int blocksPerRow;
+
+	/**
+	 * Constructor which intialises the number of blocks across each row of blocks
+	 * 
+	 * @param width number of cells in each row of the maze
+	 */
+	ZOrderLayout(int width) {
+		blocksPerRow = (width + BLOCK_SIDE - 1) >>> BLOCK_BITS;
+	}
+
+	public int index(int x, int row) {
+		int block = (row >>> BLOCK_BITS) * blocksPerRow + (x >>> BLOCK_BITS);
+		return (block << (2 * BLOCK_BITS)) | spread(x & (BLOCK_SIDE - 1)) | (spread(row & (BLOCK_SIDE - 1)) << 1);
+	}
+
+	public int x(int index) {
+		int block = index >>> (2 * BLOCK_BITS);
+		return ((block % blocksPerRow) << BLOCK_BITS) | compact(index);
+	}
+
+	public int row(int index) {
+		int block = index >>> (2 * BLOCK_BITS);
+		return ((block / blocksPerRow) << BLOCK_BITS) | compact(index >>> 1);
+	}
+
+	public int adjacent(int index, Maze.Direction d) {
+		// Moves inside a block add or subtract one from the interleaved column or row bits,
+		// moves across the edge of a block fall back to converting through the coordinates
+		int low = index & BLOCK_MASK;
+		int block = index & ~BLOCK_MASK;
+		switch (d) {
+			case EAST:
+				if ((low & X_BITS) != X_BITS) {
+					return block | (((low | ROW_BITS) + 1) & X_BITS) | (low & ROW_BITS);
+				}
+				return index(x(index) + 1, row(index));
+			case WEST:
+				if ((low & X_BITS) != 0) {
+					return block | (((low & X_BITS) - 1) & X_BITS) | (low & ROW_BITS);
+				}
+				return index(x(index) - 1, row(index));
+			case SOUTH:
+				if ((low & ROW_BITS) != ROW_BITS) {
+					return block | (((low | X_BITS) + 1) & ROW_BITS) | (low & X_BITS);
+				}
+				return index(x(index), row(index) + 1);
+			default:
+				if ((low & ROW_BITS) != 0) {
+					return block | (((low & ROW_BITS) - 1) & ROW_BITS) | (low & X_BITS);
+				}
+				return index(x(index), row(index) - 1);
+		}
+	}
+
+	public long cellCount(int height) {
+		long blockRows = ((long) height + BLOCK_SIDE - 1) >>> BLOCK_BITS;
+		return blockRows * blocksPerRow << (2 * BLOCK_BITS);
+	}
+
+	public boolean contiguousRows() {
+		return false;
+	}
+
+	/**
+	 * Method which spreads the bits of a value out so there is a zero bit between each of them
+	 * 
+	 * @param v value of at most 16 bits
+	 * @return returns the value with its bits moved to the even positions
+	 */
+	private static int spread(int v) {
+		v = (v | (v << 8)) & 0x00FF00FF;
+		v = (v | (v << 4)) & 0x0F0F0F0F;
+		v = (v | (v << 2)) & 0x33333333;
+		return (v | (v << 1)) & 0x55555555;
+	}
+
+	/**
+	 * Method which gathers the bits in the even positions of the low bits of an index back together
+	 * 
+	 * @param v index shifted so the wanted bits are in the even positions
+	 * @return returns the gathered value
+	 */
+	private static int compact(int v) {
+		v &= X_BITS;
+		v = (v | (v >>> 1)) & 0x33333333;
+		v = (v | (v >>> 2)) & 0x0F0F0F0F;
+		v = (v | (v >>> 4)) & 0x00FF00FF;
+		return (v | (v >>> 8)) & 0x0000FFFF;
+	}
+
+}
@@ -1,278 +1,831 @@
-package maze.routing;
-
-// import java.io.File;
-// import java.io.FileReader;
-// import java.io.BufferedReader;
-// import java.io.IOException;
-// import java.io.FileNotFoundException;
-// import java.io.PrintWriter;
-// import java.io.FileWriter;
-import java.io.*;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Stack;
-import maze.Maze;
-import maze.Tile;
-import maze.Tile.Type;
-import maze.Maze.Coordinate;
-import maze.Maze.Direction;
-
-/**
- * Class which deals with finding, loading and saving route
- * 
- * @author Joshwin Sundarraj
- */
-public class RouteFinder implements Serializable {
-	private static final long serialversionUID = 129348938L;
-
-	private Maze maze;
-	private Stack<Tile> route;
-	private boolean goingToFinish;
-	private boolean finished;
-	private Tile entrance;
-	private Tile exit;
-	private Tile currentTile;
-	private Tile previousTile;
-	private List<Tile> visited;
-	private List<Tile> backTrackedTiles;
-	private boolean backTracking;
-
-	private List<List<Tile>> tiles;
-	
-
-	/**
-	 * Constructor which creates a new RouteFinder object.
-	 * Intiliases the maze to the given maze and initialises tiles,entrance and exit based on the maze.
-	 * Initialises the three lists for the route and the boolean variables.
-	 * 
-	 * @param maze_in given maze for which a route can be found.
-	 */
-	public RouteFinder(Maze maze_in) {
-		maze = maze_in;
-		tiles = maze.getTiles();
-		entrance = maze.getEntrance();
-		exit = maze.getExit();
-		currentTile = entrance;
-		route = new Stack<Tile>();
-		visited = new ArrayList<Tile>();
-		backTrackedTiles = new ArrayList<Tile>();
-		backTracking = false;
-		goingToFinish = false;
-		previousTile = null;
-	}
-	
-	/**
-	 * Method which returns current state of maze belonging to the object
-	 * 
-	 * @return maze which is being traversed.
-	 */
-	public Maze getMaze() {
-		return maze;
-	}
-
-	/**
-	 * Method which returns the current state of the route 
-	 * in list form from a stack form
-	 * 
-	 * @return a list of tiles which form the current route
-	 */
-	public List<Tile> getRoute() {
-		// Convert stack to list 
-		List<Tile> routeList = new ArrayList<>();
-		for (Tile each: route){
-			routeList.add(each);
-		}
-		return routeList;
-	}
-	
-	/**
-	 * Method which returns whether a route has been found
-	 * 
-	 * @return returns true if route has been completed else returns false
-	 */
-	public boolean isFinished() {
-		return finished;
-	}
-	
-	/**
-	 * Method which loads currently saved route from a .route file
-	 * by loading the state into a new RouteFinder object.
-	 * This is done by deserialization of an object
-	 * 
-	 * @param s filepath of route to be loaded
-	 * @return return the new RouteFinder object with intialised data from file
-	 * @throws FileNotFoundException thrown when file which does not exist has been provided
-	 * @throws IOException thrown when invalid file is provided
-	 * @throws ClassNotFoundException thrown when object cannot be deserialized
-	 */
-	public static RouteFinder load(String s) throws FileNotFoundException, IOException,
-											ClassNotFoundException{
-		try {
-			if (!s.contains(".route")){
-				throw new IOException("Invalid file type");
-			}
-
-			File fileCheck = new File(s);
-
-			if(!fileCheck.exists() || fileCheck.isDirectory()) { 
-    			throw new FileNotFoundException();
-			}
-
-			if (fileCheck.length() == 0) {
-				throw new EOFException("Cannot load from empty file");
-			}
-
-			FileInputStream file = new FileInputStream(s); 
-            ObjectInputStream in = new ObjectInputStream(file); 
-
-            // Method for deserialization of object 
-            RouteFinder result = (RouteFinder)in.readObject(); 
-  
-            in.close(); 
-            file.close(); 
-            System.out.println("Object has been deserialized\n"); 
-			
-			return result;
-			
-		} catch (FileNotFoundException e) {
-			throw new FileNotFoundException("File could not be found.");
-		} catch (ClassNotFoundException e) {
-			throw new ClassNotFoundException("File could not be deserialized.");
-		}	
-	}
-	
-
-	/**
-	 * Method which saves the current state of the RouteFinder object in a file specified by the file path.
-	 * It does this by serialising the object into a file.
-	 * 
-	 * @param s file path of the file which will have the serialised object
-	 * @throws IOException thrown when an invalid file type is given
-	 */
-	public void save(String s) throws IOException {
-		try {
-			FileOutputStream file = new FileOutputStream(s); 
-            ObjectOutputStream out = new ObjectOutputStream(file); 
-  
-            out.writeObject(this); 
-  
-            out.close(); 
-            file.close(); 
-  
-            System.out.println("Object has been serialized\n");
-			System.out.println("Successfully wrote to the file.");
-    	} catch (IOException e) {
-			throw new IOException("An error occurred.");
-		}
-	}
-	
-	/**
-	 * Method which adds one more step to the route.
-	 * It does this by analysing all the adjacent tiles with respect to the current tile.
-	 * If there is no way to move forward in the maze it will backtrack.
-	 * A route is not found if there is no way to move from the entrance.
-	 * 
-	 * @return returns true if the route has been completed, otherwise false 
-	 * @throws NoRouteFoundException thrown if there is no route that can be detected
-	 */
-	public boolean step() throws NoRouteFoundException {
-		// Make list of tiles for each direction
-		// Get all adjacent tiles and enter into list
-		// Loop through and if that element is not null, check if type is exit 
-		// If exit is there, set finished to true and the "currentTile" variable to that tile
-		// else Loop through again and if that element is not null, check which are navigable
-		// And choose first navigable one to currentTile
-
-		if (!isFinished()) {
-
-			if (goingToFinish){
-				route.push(exit);
-				finished = true;
-				return true;
-			}
-
-			List<Tile> adjTiles = new ArrayList<Tile>();
-			if (!route.contains(currentTile)) {
-				route.push(currentTile);
-				visited.add(currentTile);
-			}
-			for(Direction d: Direction.values()){
-				Tile nextTile = maze.getAdjacentTile(currentTile, d);
-				if (nextTile != null && nextTile.isNavigable()){
-					if (nextTile == exit){
-						currentTile = nextTile;
-						goingToFinish = true;
-						return false;
-					}
-
-					if (!visited.contains(nextTile)) {
-						adjTiles.add(nextTile);	
-					}			
-				} // if
-			} //for
-
-			if (adjTiles.size() == 0) {
-
-				if (currentTile == entrance) {
-					throw new NoRouteFoundException(); 
-				}
-				previousTile = currentTile;
-				backTracking = true;
-				currentTile = route.get(route.size() - 2);
-				if (backTracking) {
-					backTrackedTiles.add(previousTile);
-					route.pop();
-				}
-				return false; 
-			}
-			else {
-				currentTile = adjTiles.get(0);
-				if (backTracking) {
-					backTrackedTiles.add(previousTile);
-					backTracking = false;
-				}
-				return false; 
-			}
-		}
-		else {
-			return true;
-		}
-	
-	}
-	
-	/**
-	 * Method which converts the current state of the maze and route into a string representation
-	 * 
-	 * @return returns the state of maze and route in string form
-	 */
-	public String toString() {
-		String mazeString = "";
-		List<Tile> routeList = getRoute();
-
-		for (int i=0; i<tiles.size(); i++) {
-			List<Tile> currentRow = tiles.get(i);
-			for (int j=0; j<currentRow.size(); j++) {
-				Tile curTile = currentRow.get(j);
-				String currentChar = null; 
-				
-				if (curTile == entrance) {
-					currentChar = curTile.toString();
-				}
-				else if (backTrackedTiles.contains(curTile)){
-					currentChar = "-";
-				}
-				else if (routeList.contains(curTile)) {
-					currentChar = "*";
-				}
-				else {
-					currentChar = curTile.toString();
-				}
-				mazeString = mazeString + currentChar + " ";
-			}
-			mazeString = mazeString + String.format("\n");
-		}
-
-		return mazeString;
-	}
-	
-}
+package maze.routing;
+
+// import java.io.File;
+// import java.io.FileReader;
+// import java.io.BufferedReader;
+// import java.io.IOException;
+// import java.io.FileNotFoundException;
+// import java.io.PrintWriter;
+// import java.io.FileWriter;
+import java.io.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.MazeStore;
+import maze.Tile;
+import maze.Maze.Direction;
+
+/**
+ * Class which deals with finding, loading and saving route.
+ * Routes are saved in a compact .route format holding the moves of the route as directions,
+ * which are replayed against the maze when the route is loaded.
+ * The same format is used when a RouteFinder is serialised, and it carries a version and CRC32C checksums
+ * so files from other versions or damaged files are rejected rather than misread.
+ * A route can hold its maze or, when saved with a MazeStore, just the content hash of the maze in the store.
+ * 
+ * @author Joshwin Sundarraj
+ */
+public class RouteFinder implements Externalizable {
+	private static final long serialVersionUID = 129348938L;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private static final int ROUTE_MAGIC = 0x4D5A5000;
+	private static final short ROUTE_VERSION = 3;
+	private static final int ROUTE_HEADER_LENGTH = 33;
+	private static final int FINISHED = 1;
+	private static final int GOING_TO_FINISH = 2;
+	private static final int BACKTRACKING = 4;
+	private static final int EXPLORED = 8;
+	private static final int REFERENCED = 16;
+	private static final int NO_MOVE = 0xFF;
+
+	private Maze maze;
+	private int[] route;
+	private int routeSize;
+	private boolean goingToFinish;
+	private boolean finished;
+	private int entrance;
+	private int exit;
+	private int currentTile;
+	private int previousTile;
+	private BitSet onRoute;
+	private BitSet visited;
+	private BitSet backTrackedTiles;
+	private boolean backTracking;
+	private transient StepJournal journal;
+	
+
+	/**
+	 * Constructor which creates a new RouteFinder object.
+	 * Intiliases the maze to the given maze and initialises entrance and exit based on the maze.
+	 * Tiles are tracked by their cell index. The visited sets take one bit per cell of the maze, while the route stack
+	 * starts small and doubles when it is full, so it takes memory in proportion to the route rather than the maze
+	 * and stepping only creates an object on the few steps which grow it.
+	 * 
+	 * @param maze_in given maze for which a route can be found.
+	 */
+	public RouteFinder(Maze maze_in) {
+		start(maze_in);
+	}
+
+	/**
+	 * Constructor which creates a RouteFinder with no maze, for reading a saved route with readExternal
+	 */
+	public RouteFinder() {
+	}
+
+	/**
+	 * Method which sets up an empty route through a maze
+	 * 
+	 * @param maze_in given maze for which a route can be found.
+	 */
+	private void start(Maze maze_in) {
+		maze = maze_in;
+		int noOfCells = maze.getCellCount();
+		entrance = maze.getEntranceIndex();
+		exit = maze.getExitIndex();
+		currentTile = entrance;
+		route = new int[Math.min(noOfCells, 1024)];
+		routeSize = 0;
+		onRoute = new BitSet(noOfCells);
+		visited = new BitSet(noOfCells);
+		backTrackedTiles = new BitSet(noOfCells);
+		backTracking = false;
+		goingToFinish = false;
+		previousTile = -1;
+	}
+	
+	/**
+	 * Method which returns current state of maze belonging to the object
+	 * 
+	 * @return maze which is being traversed.
+	 */
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/**
+	 * Method which returns the current state of the route 
+	 * in list form from a stack form
+	 * 
+	 * @return a list of tiles which form the current route
+	 */
+	public List<Tile> getRoute() {
+		// Convert stack of cell indices to list of tiles
+		List<Tile> routeList = new ArrayList<>(routeSize);
+		for (int i=0; i<routeSize; i++){
+			routeList.add(maze.getTile(route[i]));
+		}
+		return routeList;
+	}
+	
+	/**
+	 * Method which returns the current route as the direction of each move from the entrance
+	 * 
+	 * @return returns one direction for each tile of the route after the first
+	 */
+	public Direction[] getRouteDirections() {
+		Direction[] moves = new Direction[Math.max(0, routeSize - 1)];
+		for (int i=1; i<routeSize; i++) {
+			moves[i - 1] = directionBetween(route[i - 1], route[i]);
+		}
+		return moves;
+	}
+
+	/**
+	 * Method which returns whether a route has been found
+	 * 
+	 * @return returns true if route has been completed else returns false
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+	
+	/**
+	 * Method which loads currently saved route from a .route file
+	 * by loading the state into a new RouteFinder object.
+	 * The maze is read from the file, then the route is rebuilt by replaying its moves from the entrance.
+	 * 
+	 * @param s filepath of route to be loaded
+	 * @return return the new RouteFinder object with intialised data from file
+	 * @throws FileNotFoundException thrown when file which does not exist has been provided
+	 * @throws IOException thrown when invalid file is provided
+	 * @throws ClassNotFoundException thrown when object cannot be deserialized
+	 */
+	public static RouteFinder load(String s) throws FileNotFoundException, IOException,
+											ClassNotFoundException{
+		return load(s, null);
+	}
+
+	/**
+	 * Method which loads a saved route from a .route file, finding the maze in a maze store when the route
+	 * refers to it by its content hash. Routes which hold their own maze are loaded as well, and every route
+	 * loaded through the same store with the same maze shares one Maze object.
+	 * 
+	 * @param s filepath of route to be loaded
+	 * @param store the store to find the maze in, or null to only load routes which hold their own maze
+	 * @return return the new RouteFinder object with intialised data from file
+	 * @throws FileNotFoundException thrown when file which does not exist has been provided
+	 * @throws IOException thrown when invalid file is provided or its maze is not in the store
+	 */
+	public static RouteFinder load(String s, MazeStore store) throws FileNotFoundException, IOException {
+		try {
+			if (!s.contains(".route")){
+				throw new IOException("Invalid file type");
+			}
+
+			File fileCheck = new File(s);
+
+			if(!fileCheck.exists() || fileCheck.isDirectory()) { 
+    			throw new FileNotFoundException();
+			}
+
+			if (fileCheck.length() == 0) {
+				throw new EOFException("Cannot load from empty file");
+			}
+
+			RouteFinder result = new RouteFinder();
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(s), 1 << 16))) {
+				result.readRoute(in, fileCheck.length(), store);
+			}
+            System.out.println("Route has been loaded\n"); 
+			
+			return result;
+			
+		} catch (FileNotFoundException e) {
+			throw new FileNotFoundException("File could not be found.");
+		}
+	}
+	
+
+	/**
+	 * Method which saves the current state of the RouteFinder object in a file specified by the file path,
+	 * including the tiles which have been explored and backtracked from
+	 * 
+	 * @param s file path of the file which will have the saved route
+	 * @throws IOException thrown when an invalid file type is given
+	 */
+	public void save(String s) throws IOException {
+		save(s, true);
+	}
+
+	/**
+	 * Method which saves the current state of the RouteFinder object in a file specified by the file path,
+	 * adding the maze to a maze store and saving only its content hash, so routes through the same maze
+	 * do not each hold a copy of it
+	 * 
+	 * @param s file path of the file which will have the saved route
+	 * @param store the store to add the maze to
+	 * @throws IOException thrown when an invalid file type is given or the maze cannot be added to the store
+	 */
+	public void save(String s, MazeStore store) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(s), 1 << 16))) {
+			writeRoute(out, true, store.put(maze));
+			System.out.println("Successfully wrote to the file.");
+    	} catch (IOException | InvalidMazeException e) {
+			throw new IOException("An error occurred.");
+		}
+	}
+
+	/**
+	 * Method which saves the current state of the RouteFinder object in a file specified by the file path.
+	 * The file holds the maze, the entrance and the route as a 2-bit direction code for each move,
+	 * so a route of a million steps takes about 250KB on top of the maze.
+	 * The tiles which have been backtracked from are only saved when asked for; without them a loaded route
+	 * is the same, but a route which is not finished may explore those tiles again.
+	 * 
+	 * @param s file path of the file which will have the saved route
+	 * @param explored whether to save the tiles which have been backtracked from
+	 * @throws IOException thrown when an invalid file type is given
+	 */
+	public void save(String s, boolean explored) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(s), 1 << 16))) {
+			writeRoute(out, explored, null);
+			System.out.println("Successfully wrote to the file.");
+    	} catch (IOException | InvalidMazeException e) {
+			throw new IOException("An error occurred.");
+		}
+	}
+
+	/**
+	 * Method which saves the tiles of the route as a step file, with a fixed-width entry for each tile,
+	 * so a very long route can be opened with StepFile and read from any step without loading all of it
+	 * 
+	 * @param s file path of the step file
+	 * @throws IOException thrown when an invalid file type is given or the file cannot be written
+	 */
+	public void saveSteps(String s) throws IOException {
+		StepFile.write(s, maze, route, routeSize, finished);
+	}
+
+	/**
+	 * Method which writes the route in the .route format, with the tiles which have been backtracked from.
+	 * This is the same format save writes, so routes can be embedded in other serialised objects.
+	 * 
+	 * @param out the stream to write to
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	public void writeExternal(ObjectOutput out) throws IOException {
+		writeRoute(out, true, null);
+	}
+
+	/**
+	 * Method which reads a route written by writeExternal into this RouteFinder
+	 * 
+	 * @param in the stream to read from
+	 * @throws IOException thrown when the stream cannot be read or does not hold a valid route
+	 */
+	public void readExternal(ObjectInput in) throws IOException {
+		readRoute(in, -1, null);
+	}
+
+	/**
+	 * Method which writes the route in the .route format.
+	 * A header holds the format version, the state flags, the moves to the current tile and the tile
+	 * backtracked from, the entrance, the number of tiles in the route and the length of each section,
+	 * followed by a CRC32C of the header. Then come three sections: the maze in the binary format or its content hash,
+	 * the moves of the route four to a byte, and the backtracked tiles as a compressed bitmap,
+	 * which is empty unless asked for, followed by a CRC32C of the sections.
+	 * 
+	 * @param out the stream to write to
+	 * @param explored whether to write the tiles which have been backtracked from
+	 * @param mazeHash the content hash of the maze in its store, or null to write the maze itself
+	 * @throws IOException thrown when the stream cannot be written
+	 */
+	void writeRoute(DataOutput out, boolean explored, byte[] mazeHash) throws IOException {
+		byte[] mazeArray;
+		if (mazeHash != null) {
+			mazeArray = mazeHash;
+		}
+		else {
+			ByteArrayOutputStream mazeBytes = new ByteArrayOutputStream();
+			try (DataOutputStream mazeOut = new DataOutputStream(mazeBytes)) {
+				maze.writeBinary(mazeOut);
+			}
+			mazeArray = mazeBytes.toByteArray();
+		}
+
+		byte[] moves = new byte[routeSize > 1 ? (routeSize - 1 + 3) / 4 : 0];
+		for (int i=1; i<routeSize; i++) {
+			moves[(i - 1) >>> 2] |= directionBetween(route[i - 1], route[i]).ordinal() << (((i - 1) & 3) << 1);
+		}
+
+		ByteArrayOutputStream exploredBytes = new ByteArrayOutputStream();
+		if (explored) {
+			BitSet fileOrder = new BitSet(maze.getCellCount());
+			for (int i = backTrackedTiles.nextSetBit(0); i >= 0; i = backTrackedTiles.nextSetBit(i + 1)) {
+				fileOrder.set(filePosition(i));
+			}
+			try (DeflaterOutputStream deflater = new DeflaterOutputStream(exploredBytes)) {
+				deflater.write(fileOrder.toByteArray());
+			}
+		}
+
+		int top = routeSize == 0 ? entrance : route[routeSize - 1];
+		ByteBuffer header = ByteBuffer.allocate(ROUTE_HEADER_LENGTH);
+		header.putInt(ROUTE_MAGIC);
+		header.putShort(ROUTE_VERSION);
+		header.put((byte) ((finished ? FINISHED : 0) | (goingToFinish ? GOING_TO_FINISH : 0)
+					| (backTracking ? BACKTRACKING : 0) | (explored ? EXPLORED : 0) | (mazeHash != null ? REFERENCED : 0)));
+		header.put((byte) (currentTile == top ? NO_MOVE : directionBetween(top, currentTile).ordinal()));
+		header.put((byte) (backTracking ? directionBetween(currentTile, previousTile).ordinal() : NO_MOVE));
+		header.putInt(filePosition(entrance));
+		header.putInt(routeSize);
+		header.putInt(mazeArray.length);
+		header.putInt(moves.length);
+		header.putInt(exploredBytes.size());
+		CRC32C crc = new CRC32C();
+		crc.update(header.array(), 0, header.position());
+		header.putInt((int) crc.getValue());
+		out.write(header.array());
+
+		crc.reset();
+		byte[] exploredArray = exploredBytes.toByteArray();
+		for (byte[] section : new byte[][] {mazeArray, moves, exploredArray}) {
+			crc.update(section);
+			out.write(section);
+		}
+		out.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * Method which reads a route written by writeRoute into this RouteFinder.
+	 * The header is checked against its CRC and the lengths of the sections against the length of the file
+	 * before anything is allocated for them. When the length of the stream is not known, the maze section is read
+	 * a piece at a time so a false length cannot allocate more than the stream holds, and the other sections are
+	 * bounded by the number of cells of the maze before they are allocated. The sections are checked against
+	 * their CRC before the maze or route is built from them. The moves are then replayed against the maze, checking each one goes to
+	 * a navigable tile which is not already on the route. Nothing is read recursively, so the stack used
+	 * does not depend on the length of the route.
+	 * 
+	 * @param in the stream to read from
+	 * @param available number of bytes left in the stream, or -1 if it is not known
+	 * @param store the store to find the maze in, or null if the route must hold its own maze
+	 * @throws IOException thrown when the stream cannot be read, does not hold a valid route
+	 * 						or refers to a maze which is not in the store
+	 */
+	void readRoute(DataInput in, long available, MazeStore store) throws IOException {
+		byte[] headerBytes = new byte[ROUTE_HEADER_LENGTH];
+		in.readFully(headerBytes);
+		ByteBuffer header = ByteBuffer.wrap(headerBytes);
+		if (header.getInt() != ROUTE_MAGIC) {
+			throw new IOException("Not a route file");
+		}
+		short version = header.getShort();
+		if (version < ROUTE_VERSION - 1 || version > ROUTE_VERSION) {
+			throw new IOException("Unsupported route file version " + version);
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(headerBytes, 0, ROUTE_HEADER_LENGTH - 4);
+		if (header.getInt(ROUTE_HEADER_LENGTH - 4) != (int) crc.getValue()) {
+			throw new IOException("Route file is corrupt");
+		}
+		int flags = header.get() & 0xFF;
+		int current = header.get() & 0xFF;
+		int previous = header.get() & 0xFF;
+		int entrancePosition = header.getInt();
+		int size = header.getInt();
+		int mazeLength = header.getInt();
+		int movesLength = header.getInt();
+		int exploredLength = header.getInt();
+		boolean referenced = (flags & REFERENCED) != 0;
+		if (size < 0 || mazeLength < 0 || exploredLength < 0 || (referenced && mazeLength != MazeStore.HASH_LENGTH) || movesLength != (size > 1 ? (size - 1 + 3) / 4 : 0)
+				|| (available != -1 && available != ROUTE_HEADER_LENGTH + (long) mazeLength + movesLength + exploredLength + 4)) {
+			throw new IOException("Route file is corrupt");
+		}
+
+		byte[] mazeBytes = readSection(in, mazeLength);
+		Maze stored = null;
+		long cellCount;
+		try {
+			if (referenced) {
+				if (store == null) {
+					throw new IOException("Route refers to its maze by hash, load it with a maze store");
+				}
+				stored = store.get(mazeBytes);
+				if (stored == null) {
+					throw new IOException("Maze of the route is not in the store");
+				}
+				cellCount = stored.getCellCount();
+			}
+			else {
+				// A binary maze packs four cells into each byte after its header
+				cellCount = 4L * mazeLength;
+			}
+		} catch (InvalidMazeException e) {
+			throw new IOException("Route file holds an invalid maze: " + e.getMessage());
+		}
+		// The backtracked tiles are a deflated bitmap, which deflate can only make a little longer
+		long bitmapLength = (cellCount + 7) / 8;
+		if (size > cellCount || exploredLength > bitmapLength + (bitmapLength >>> 3) + 64) {
+			throw new IOException("Route file is corrupt");
+		}
+		byte[] moves = new byte[movesLength];
+		byte[] exploredBytes = new byte[exploredLength];
+		in.readFully(moves);
+		in.readFully(exploredBytes);
+		crc.reset();
+		for (byte[] section : new byte[][] {mazeBytes, moves, exploredBytes}) {
+			crc.update(section);
+		}
+		if (in.readInt() != (int) crc.getValue()) {
+			throw new IOException("Route file is corrupt");
+		}
+
+		try {
+			if (referenced) {
+				start(stored);
+			}
+			else if (store != null) {
+				start(store.read(mazeBytes));
+			}
+			else {
+				start(Maze.readBinary(new DataInputStream(new ByteArrayInputStream(mazeBytes))));
+			}
+		} catch (InvalidMazeException e) {
+			throw new IOException("Route file holds an invalid maze: " + e.getMessage());
+		}
+		if (entrancePosition != filePosition(entrance) || size > maze.getCellCount()) {
+			throw new IOException("Route file is corrupt");
+		}
+
+		route = new int[Math.max(route.length, size)];
+		if (size > 0) {
+			push(entrance);
+			visited.set(entrance);
+		}
+		for (int i=1; i<size; i++) {
+			int next = replay(route[i - 1], (moves[(i - 1) >>> 2] >>> (((i - 1) & 3) << 1)) & 3);
+			if (onRoute.get(next)) {
+				throw new IOException("Route file is corrupt");
+			}
+			push(next);
+			visited.set(next);
+		}
+
+		finished = (flags & FINISHED) != 0;
+		goingToFinish = (flags & GOING_TO_FINISH) != 0;
+		backTracking = (flags & BACKTRACKING) != 0;
+		int top = size == 0 ? entrance : route[size - 1];
+		currentTile = current == NO_MOVE ? top : replay(top, current);
+		if (backTracking) {
+			previousTile = replay(currentTile, previous);
+		}
+
+		if (exploredLength > 0) {
+			BitSet fileOrder;
+			try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(exploredBytes))) {
+				fileOrder = BitSet.valueOf(inflater.readAllBytes());
+			} catch (ZipException e) {
+				throw new IOException("Route file is corrupt");
+			}
+			if (fileOrder.length() > maze.getCellCount()) {
+				throw new IOException("Route file is corrupt");
+			}
+			for (int i = fileOrder.nextSetBit(0); i >= 0; i = fileOrder.nextSetBit(i + 1)) {
+				int index = maze.getIndex(i % maze.getWidth(), maze.getHeight() - 1 - i / maze.getWidth());
+				backTrackedTiles.set(index);
+				visited.set(index);
+			}
+		}
+	}
+
+	/**
+	 * Method which reads a section of a saved route whose length has not been checked against the stream,
+	 * growing the array as the bytes arrive so that no more is allocated than the stream holds
+	 * 
+	 * @param in the stream to read from
+	 * @param length length of the section given by the header
+	 * @return returns the bytes of the section
+	 * @throws IOException thrown when the stream cannot be read or ends before the section
+	 */
+	private static byte[] readSection(DataInput in, int length) throws IOException {
+		byte[] section = new byte[Math.min(length, 1 << 16)];
+		int filled = 0;
+		while (filled < length) {
+			if (filled == section.length) {
+				section = Arrays.copyOf(section, (int) Math.min(length, section.length * 2L));
+			}
+			in.readFully(section, filled, section.length - filled);
+			filled = section.length;
+		}
+		return section;
+	}
+
+	/**
+	 * Method which makes one move of a saved route, checking the move is to a navigable tile
+	 * 
+	 * @param index index of the tile moved from
+	 * @param code ordinal of the direction of the move
+	 * @return returns the index of the tile moved to
+	 * @throws IOException thrown when the move is not to a navigable tile
+	 */
+	private int replay(int index, int code) throws IOException {
+		int next = code < DIRECTIONS.length ? move(index, code) : -1;
+		if (next == -1) {
+			throw new IOException("Route file is corrupt");
+		}
+		return next;
+	}
+
+	/**
+	 * Method which returns the tile a move leads to if the move is to a navigable tile
+	 * 
+	 * @param index index of the tile moved from
+	 * @param code ordinal of the direction of the move
+	 * @return returns the index of the tile moved to, or -1 if it is not navigable
+	 */
+	private int move(int index, int code) {
+		if ((maze.getNavigableMask(index) & (1 << code)) == 0) {
+			return -1;
+		}
+		return maze.adjacentIndex(index, DIRECTIONS[code]);
+	}
+
+	/**
+	 * Method which returns the direction of a move between two neighbouring tiles
+	 * 
+	 * @param from index of the tile moved from
+	 * @param to index of the tile moved to
+	 * @return returns the direction of the move
+	 * @throws IllegalStateException thrown when the tiles are not neighbours
+	 */
+	private Direction directionBetween(int from, int to) throws IllegalStateException {
+		for (Direction d: DIRECTIONS) {
+			if (maze.neighbour(from, d) == to) {
+				return d;
+			}
+		}
+		throw new IllegalStateException("Route is not a path of neighbouring tiles");
+	}
+
+	/**
+	 * Method which returns the position of a tile when the tiles are read row by row from the first line of the maze
+	 * 
+	 * @param index index of the tile
+	 * @return returns row * width + x
+	 */
+	private int filePosition(int index) {
+		Maze.Coordinate c = maze.getCoordinate(index);
+		return (maze.getHeight() - 1 - c.getY()) * maze.getWidth() + c.getX();
+	}
+	
+	/**
+	 * Method which adds one more step to the route.
+	 * It does this by analysing all the adjacent tiles with respect to the current tile.
+	 * If there is no way to move forward in the maze it will backtrack.
+	 * A route is not found if there is no way to move from the entrance.
+	 * 
+	 * @return returns true if the route has been completed, otherwise false 
+	 * @throws NoRouteFoundException thrown if there is no route that can be detected
+	 */
+	public boolean step() throws NoRouteFoundException {
+		// Check every adjacent cell of the current cell
+		// If one of them is the exit, move onto it and finish on the next step
+		// else move onto the first navigable cell which has not been visited
+		// If there is none, backtrack to the previous cell of the route
+
+		if (!isFinished()) {
+
+			if (goingToFinish){
+				push(exit);
+				finished = true;
+				record(StepJournal.FINISH);
+				return true;
+			}
+
+			int nextUnvisited = -1;
+			int nextDirection = -1;
+			if (!onRoute.get(currentTile)) {
+				push(currentTile);
+				visited.set(currentTile);
+			}
+			int mask = maze.getNavigableMask(currentTile);
+			for(Direction d: DIRECTIONS){
+				if ((mask & (1 << d.ordinal())) != 0){
+					int nextTile = maze.adjacentIndex(currentTile, d);
+					if (nextTile == exit){
+						currentTile = nextTile;
+						goingToFinish = true;
+						record(StepJournal.EXIT | d.ordinal());
+						return false;
+					}
+
+					if (nextUnvisited == -1 && !visited.get(nextTile)) {
+						nextUnvisited = nextTile;
+						nextDirection = d.ordinal();
+					}			
+				} // if
+			} //for
+
+			if (nextUnvisited == -1) {
+
+				if (currentTile == entrance) {
+					record(StepJournal.NO_ROUTE);
+					throw new NoRouteFoundException(); 
+				}
+				previousTile = currentTile;
+				backTracking = true;
+				currentTile = route[routeSize - 2];
+				backTrackedTiles.set(previousTile);
+				pop();
+				record(StepJournal.BACKTRACK);
+				return false; 
+			}
+			else {
+				currentTile = nextUnvisited;
+				if (backTracking) {
+					backTrackedTiles.set(previousTile);
+					backTracking = false;
+				}
+				record(StepJournal.FORWARD | nextDirection);
+				return false; 
+			}
+		}
+		else {
+			return true;
+		}
+	
+	}
+
+	/**
+	 * Method which starts journalling every step to a file, so the route can be resumed with resume
+	 * if the process dies. Any journal already being written is closed first.
+	 * 
+	 * @param s file path of the journal
+	 * @param store the store to keep the maze in, or null to keep the maze in every checkpoint of the journal
+	 * @param syncInterval number of steps between forcing the journal to disk, at most this many steps are lost in a crash
+	 * @param checkpointInterval number of steps between checkpoints, at most this many steps are applied on resume
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	public void journal(String s, MazeStore store, int syncInterval, int checkpointInterval) throws IOException {
+		closeJournal();
+		journal = new StepJournal(s, this, store, syncInterval, checkpointInterval);
+	}
+
+	/**
+	 * Method which forces the journal to disk and stops journalling steps
+	 * 
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	public void closeJournal() throws IOException {
+		if (journal != null) {
+			StepJournal closing = journal;
+			journal = null;
+			closing.close();
+		}
+	}
+
+	/**
+	 * Method which rebuilds a route from its journal, as it was after the last step forced to disk.
+	 * The checkpoint at the start of the journal is loaded and the steps after it applied,
+	 * so this takes time in proportion to the steps since the checkpoint. The route is not journalled
+	 * until journal is called again.
+	 * 
+	 * @param s file path of the journal
+	 * @param store the store to find the maze in, or null if the journal holds its own maze
+	 * @return returns the rebuilt route
+	 * @throws IOException thrown when the journal cannot be read or is not valid
+	 */
+	public static RouteFinder resume(String s, MazeStore store) throws IOException {
+		return StepJournal.resume(s, store);
+	}
+
+	/**
+	 * Method which applies a step read from a journal, doing what the step did without searching the neighbours again.
+	 * A step which could not have been taken from the current state is not applied, since only the end of a journal
+	 * torn by a crash holds one.
+	 * 
+	 * @param code what the step did, which StepJournal.isStep accepts
+	 * @return returns true if the step was applied, or false if it could not have been taken from the current state
+	 */
+	boolean applyStep(int code) {
+		if (finished || (goingToFinish != (code == StepJournal.FINISH))) {
+			return false;
+		}
+		if (code == StepJournal.FINISH) {
+			push(exit);
+			finished = true;
+			return true;
+		}
+		boolean pushed = onRoute.get(currentTile);
+		int next = -1;
+		if (code == StepJournal.NO_ROUTE) {
+			if (currentTile != entrance) {
+				return false;
+			}
+		}
+		else if (code == StepJournal.BACKTRACK) {
+			if (routeSize + (pushed ? 0 : 1) < 2) {
+				return false;
+			}
+		}
+		else {
+			next = move(currentTile, code & 3);
+			if ((code & ~3) == StepJournal.EXIT ? next != exit : next == -1 || visited.get(next)) {
+				return false;
+			}
+		}
+
+		if (!pushed) {
+			push(currentTile);
+			visited.set(currentTile);
+		}
+		if (code == StepJournal.BACKTRACK) {
+			previousTile = currentTile;
+			backTracking = true;
+			currentTile = route[routeSize - 2];
+			backTrackedTiles.set(previousTile);
+			pop();
+		}
+		else if ((code & ~3) == StepJournal.EXIT) {
+			currentTile = next;
+			goingToFinish = true;
+		}
+		else if (code != StepJournal.NO_ROUTE) {
+			currentTile = next;
+			if (backTracking) {
+				backTrackedTiles.set(previousTile);
+				backTracking = false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method which appends a step to the journal, if the route is being journalled
+	 * 
+	 * @param code what the step did
+	 */
+	private void record(int code) {
+		if (journal != null) {
+			journal.record(code);
+		}
+	}
+
+	/**
+	 * Method which pushes a cell onto the route, doubling the route array when it is full.
+	 * A cell is never on the route twice, so the array never needs more than one entry per cell.
+	 * 
+	 * @param index index of the cell to add to the route
+	 */
+	private void push(int index) {
+		if (routeSize == route.length) {
+			route = Arrays.copyOf(route, (int) Math.min(maze.getCellCount(), Math.max(1L, route.length * 2L)));
+		}
+		route[routeSize++] = index;
+		onRoute.set(index);
+	}
+
+	/**
+	 * Method which removes the last cell of the route
+	 */
+	private void pop() {
+		onRoute.clear(route[--routeSize]);
+	}
+	
+	/**
+	 * Method which converts the current state of the maze and route into a string representation
+	 * 
+	 * @return returns the state of maze and route in string form
+	 */
+	public String toString() {
+		StringBuilder mazeString = new StringBuilder();
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+
+		for (int i=0; i<height; i++) {
+			for (int j=0; j<width; j++) {
+				int curTile = maze.getIndex(j, height - 1 - i);
+				char currentChar; 
+				
+				if (curTile == entrance) {
+					currentChar = 'e';
+				}
+				else if (backTrackedTiles.get(curTile)){
+					currentChar = '-';
+				}
+				else if (onRoute.get(curTile)) {
+					currentChar = '*';
+				}
+				else {
+					currentChar = maze.getCellChar(curTile);
+				}
+				mazeString.append(currentChar).append(' ');
+			}
+			mazeString.append(String.format("\n"));
+		}
+
+		return mazeString.toString();
+	}
+	
+}
@@ -0,0 +1,252 @@
+package maze.routing;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import maze.Maze;
+import maze.MazeContainer;
+import maze.Maze.Direction;
+
+/**
+ * Class which solves every maze of a container file and writes the routes to a single output file.
+ * One thread reads mazes from the container into a bounded queue, a number of workers take mazes
+ * from it and solve them with a RouteFinder, and one thread writes the results in container order.
+ * Reading, solving and writing overlap, and no more than a fixed number of mazes are read but not yet written,
+ * so the reader waits when the workers or writer fall behind and memory stays flat however large the container is.
+ * <p>
+ * Each line of the output is the position of the maze in the container, then either the number of tiles
+ * in the route and the moves of the route as the letters N, E, S and W, or "none" when there is no route.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class SolvePipeline {
+
+	/**
+	 * Class which holds a maze, or the result of solving it, with its position in the container
+	 */
+	private static class Job {
+		private final long number;
+		private final Maze maze;
+		private final String result;
+
+		/**
+		 * Constructor which intialises a job
+		 *
+		 * @param number_in position of the maze in the container, or -1 for the job which marks the end
+		 * @param maze_in the maze to solve
+		 * @param result_in the line to write for the maze
+		 */
+		Job(long number_in, Maze maze_in, String result_in) {
+			number = number_in;
+			maze = maze_in;
+			result = result_in;
+		}
+	}
+
+	private static final Job END = new Job(-1, null, null);
+
+	private int workers;
+	private int capacity;
+
+	/**
+	 * Constructor which intialises the number of workers and the number of mazes which can be in flight
+	 *
+	 * @param workers_in number of threads solving mazes, at least one
+	 * @param capacity_in number of mazes which can be read but not yet written, at least one
+	 */
+	public SolvePipeline(int workers_in, int capacity_in) {
+		if (workers_in < 1 || capacity_in < 1) {
+			throw new IllegalArgumentException("Pipeline needs at least one worker and one slot");
+		}
+		workers = workers_in;
+		capacity = capacity_in;
+	}
+
+	/**
+	 * Method which solves every maze of a container and writes the results
+	 *
+	 * @param container file path of the maze container
+	 * @param output file path of the file to write the results to
+	 * @return returns the number of mazes which have a route
+	 * @throws IOException thrown when the container cannot be read, a maze in it is invalid
+	 * 						or the results cannot be written
+	 * @throws InterruptedException thrown when the calling thread is interrupted while waiting for the pipeline
+	 */
+	public long run(String container, String output) throws IOException, InterruptedException {
+		BlockingQueue<Job> mazes = new ArrayBlockingQueue<>(capacity);
+		BlockingQueue<Job> results = new ArrayBlockingQueue<>(capacity);
+		Semaphore inFlight = new Semaphore(capacity);
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		long[] solved = new long[1];
+
+		Thread reader = new Thread(() -> {
+			try (MazeContainer.Reader in = new MazeContainer.Reader(container)) {
+				Maze maze;
+				long number = 0;
+				while (failure.get() == null && (maze = in.next()) != null) {
+					inFlight.acquire();
+					mazes.put(new Job(number++, maze, null));
+				}
+			} catch (Exception e) {
+				failure.compareAndSet(null, e);
+			} finally {
+				for (int i = 0; i < workers; i++) {
+					putUninterruptibly(mazes, END);
+				}
+			}
+		}, "maze-reader");
+
+		Thread[] solvers = new Thread[workers];
+		for (int i = 0; i < workers; i++) {
+			solvers[i] = new Thread(() -> {
+				try {
+					Job job;
+					while ((job = mazes.take()) != END) {
+						String result;
+						try {
+							result = solve(job.maze);
+						} catch (RuntimeException e) {
+							// Stop the reader, but keep taking mazes so it is never left waiting on a full queue
+							failure.compareAndSet(null, e);
+							inFlight.release(capacity);
+							result = "none";
+						}
+						results.put(new Job(job.number, null, result));
+					}
+				} catch (InterruptedException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					putUninterruptibly(results, END);
+				}
+			}, "maze-solver-" + i);
+		}
+
+		Thread writer = new Thread(() -> {
+			Map<Long, String> waiting = new HashMap<>();
+			long next = 0;
+			int finishedSolvers = 0;
+			Writer out = null;
+			try {
+				out = new BufferedWriter(new FileWriter(output));
+			} catch (IOException e) {
+				failure.compareAndSet(null, e);
+				inFlight.release(capacity);
+			}
+			while (finishedSolvers < workers) {
+				Job job;
+				try {
+					job = results.take();
+				} catch (InterruptedException e) {
+					failure.compareAndSet(null, e);
+					continue;
+				}
+				if (job == END) {
+					finishedSolvers++;
+					continue;
+				}
+				if (failure.get() != null) {
+					// Keep taking results so the solvers are never left waiting on a full queue
+					continue;
+				}
+				waiting.put(job.number, job.result);
+				String line;
+				while ((line = waiting.remove(next)) != null) {
+					try {
+						out.write(next + " " + line + "\n");
+					} catch (IOException e) {
+						failure.compareAndSet(null, e);
+						inFlight.release(capacity);
+						break;
+					}
+					if (!line.equals("none")) {
+						solved[0]++;
+					}
+					next++;
+					inFlight.release();
+				}
+			}
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					failure.compareAndSet(null, e);
+				}
+			}
+		}, "maze-writer");
+
+		reader.start();
+		for (Thread solver : solvers) {
+			solver.start();
+		}
+		writer.start();
+		reader.join();
+		for (Thread solver : solvers) {
+			solver.join();
+		}
+		writer.join();
+
+		Exception e = failure.get();
+		if (e instanceof IOException) {
+			throw (IOException) e;
+		}
+		else if (e instanceof InterruptedException) {
+			throw (InterruptedException) e;
+		}
+		else if (e != null) {
+			throw new IOException("Could not solve every maze: " + e.getMessage(), e);
+		}
+		return solved[0];
+	}
+
+	/**
+	 * Method which finds the route through a maze and describes it
+	 *
+	 * @param maze the maze to solve
+	 * @return returns the number of tiles and the moves of the route, or "none" if there is no route
+	 */
+	private static String solve(Maze maze) {
+		RouteFinder finder = new RouteFinder(maze);
+		try {
+			while (!finder.step()) {
+				// Keep stepping until the exit is reached
+			}
+		} catch (NoRouteFoundException e) {
+			return "none";
+		}
+		Direction[] moves = finder.getRouteDirections();
+		StringBuilder line = new StringBuilder();
+		line.append(moves.length + 1).append(' ');
+		for (Direction d: moves) {
+			line.append(d.name().charAt(0));
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Method which puts a job on a queue even if the thread is interrupted, so the next stage is always told to stop
+	 *
+	 * @param queue the queue
+	 * @param job the job to put
+	 */
+	private static void putUninterruptibly(BlockingQueue<Job> queue, Job job) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(job);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package maze.routing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import maze.Maze;
+
+/**
+ * Class which reads a route saved as a step file, which holds one fixed-width entry for every tile of the route
+ * so it can be mapped into memory and read from any step without loading the rest.
+ * The file starts with a header giving the size of the maze and the number of steps, and each step follows as
+ * a 4-byte position of the tile counting row by row from the first line of the maze.
+ * <p>
+ * Opening a step file only reads and checks the header, so it takes the same time however long the route is.
+ * The coordinate of any step is read straight from the mapped file, and the steps can be visited in order,
+ * or read as buffers over the mapped file, without copying them or creating an object for each step.
+ * Only the header has a checksum, since checking the steps would mean reading all of them.
+ *
+ * @author Joshwin Sundarraj
+ */
+public class StepFile implements Closeable {
+
+	/**
+	 * Extension of step files
+	 */
+	public static final String EXTENSION = ".steps";
+
+	private static final int MAGIC = 0x4D5A5300;
+	private static final short VERSION = 1;
+	private static final int HEADER_LENGTH = 32;
+	private static final int FINISHED = 1;
+	private static final int CHUNK_SHIFT = 28;
+	private static final int CHUNK_STEPS = 1 << CHUNK_SHIFT;
+
+	/**
+	 * Defines what is told about each step when the steps are visited in order
+	 */
+	public interface Visitor {
+
+		/**
+		 * Method called for each step of the route
+		 *
+		 * @param step number of the step, the entrance being step 0
+		 * @param x the x position of the tile
+		 * @param y the y position of the tile
+		 */
+		void visit(int step, int x, int y);
+	}
+
+	private int width;
+	private int height;
+	private int stepCount;
+	private boolean finished;
+	private IntBuffer[] chunks;
+
+	/**
+	 * Constructor which opens a step file by mapping it into memory and checking its header
+	 *
+	 * @param s file path of the step file
+	 * @throws IOException thrown when the file cannot be read or is not a valid step file
+	 */
+	public StepFile(String s) throws IOException {
+		if (!s.contains(EXTENSION)) {
+			throw new IOException("Invalid file type");
+		}
+		try (FileChannel channel = FileChannel.open(new File(s).toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_LENGTH) {
+				throw new IOException("Not a step file");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+			if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+				throw new IOException("Not a step file");
+			}
+			CRC32C crc = new CRC32C();
+			crc.update(header.duplicate().limit(HEADER_LENGTH - 4));
+			if (header.getInt(HEADER_LENGTH - 4) != (int) crc.getValue()) {
+				throw new IOException("Step file is corrupt");
+			}
+			finished = (header.getShort(6) & FINISHED) != 0;
+			width = header.getInt(8);
+			height = header.getInt(12);
+			stepCount = header.getInt(16);
+			if (width < 1 || height < 1 || stepCount < 0 || size != HEADER_LENGTH + 4L * stepCount) {
+				throw new IOException("Step file is corrupt");
+			}
+			chunks = new IntBuffer[(int) ((stepCount + (long) CHUNK_STEPS - 1) >>> CHUNK_SHIFT)];
+			for (int i = 0; i < chunks.length; i++) {
+				long first = (long) i << CHUNK_SHIFT;
+				long steps = Math.min(CHUNK_STEPS, stepCount - first);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + 4 * first, 4 * steps).asIntBuffer();
+			}
+		}
+	}
+
+	/**
+	 * Method which writes the tiles of a route as a step file
+	 *
+	 * @param s file path of the step file
+	 * @param maze the maze of the route
+	 * @param route index of each tile of the route, from the entrance
+	 * @param size number of tiles in the route
+	 * @param finished whether the route reaches the exit
+	 * @throws IOException thrown when the path is not of a step file or the file cannot be written
+	 */
+	static void write(String s, Maze maze, int[] route, int size, boolean finished) throws IOException {
+		if (!s.contains(EXTENSION)) {
+			throw new IOException("Invalid file type");
+		}
+		int width = maze.getWidth();
+		int height = maze.getHeight();
+		try (RandomAccessFile file = new RandomAccessFile(s, "rw")) {
+			file.setLength(0);
+			file.setLength(HEADER_LENGTH + 4L * size);
+			FileChannel channel = file.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH);
+			header.putInt(MAGIC).putShort(VERSION).putShort((short) (finished ? FINISHED : 0));
+			header.putInt(width).putInt(height).putInt(size);
+			CRC32C crc = new CRC32C();
+			crc.update(header.duplicate().position(0).limit(HEADER_LENGTH - 4));
+			header.putInt(HEADER_LENGTH - 4, (int) crc.getValue());
+			for (long first = 0; first < size; first += CHUNK_STEPS) {
+				int steps = (int) Math.min(CHUNK_STEPS, size - first);
+				IntBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_LENGTH + 4 * first, 4L * steps).asIntBuffer();
+				for (int i = (int) first; i < first + steps; i++) {
+					Maze.Coordinate c = maze.getCoordinate(route[i]);
+					chunk.put((height - 1 - c.getY()) * width + c.getX());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method which returns the width of the maze of the route
+	 *
+	 * @return returns the number of tiles in each row
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Method which returns the height of the maze of the route
+	 *
+	 * @return returns the number of rows
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Method which returns the number of steps of the route
+	 *
+	 * @return returns the number of tiles in the route, including the entrance
+	 */
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Method which returns whether the route reaches the exit
+	 *
+	 * @return returns true if the route was finished when it was saved
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Method which returns the coordinate of the tile at a step of the route
+	 *
+	 * @param step number of the step, the entrance being step 0
+	 * @return returns the coordinate of the tile
+	 * @throws IndexOutOfBoundsException thrown when the route has no such step
+	 */
+	public Maze.Coordinate getCoordinate(int step) throws IndexOutOfBoundsException {
+		int position = getPosition(step);
+		return new Maze.Coordinate(position % width, height - 1 - position / width);
+	}
+
+	/**
+	 * Method which returns the position of the tile at a step of the route, counting row by row
+	 * from the first line of the maze, without creating a coordinate
+	 *
+	 * @param step number of the step, the entrance being step 0
+	 * @return returns row * width + x
+	 * @throws IndexOutOfBoundsException thrown when the route has no such step
+	 */
+	public int getPosition(int step) throws IndexOutOfBoundsException {
+		if (step < 0 || step >= stepCount) {
+			throw new IndexOutOfBoundsException("Route has no step " + step);
+		}
+		return chunks()[step >>> CHUNK_SHIFT].get(step & (CHUNK_STEPS - 1));
+	}
+
+	/**
+	 * Method which visits steps of the route in order, reading them straight from the mapped file
+	 *
+	 * @param from the first step to visit
+	 * @param to the step after the last step to visit
+	 * @param visitor told about each step
+	 * @throws IndexOutOfBoundsException thrown when the steps are not all in the route
+	 */
+	public void forEach(int from, int to, Visitor visitor) throws IndexOutOfBoundsException {
+		if (from < 0 || to > stepCount || from > to) {
+			throw new IndexOutOfBoundsException(String.format("Route has no steps %d to %d", from, to));
+		}
+		IntBuffer[] mapped = chunks();
+		for (int step = from; step < to; step++) {
+			int position = mapped[step >>> CHUNK_SHIFT].get(step & (CHUNK_STEPS - 1));
+			visitor.visit(step, position % width, height - 1 - position / width);
+		}
+	}
+
+	/**
+	 * Method which returns the positions of the steps as buffers over the mapped file, for tools which read
+	 * the steps in bulk. Each buffer holds up to 2^28 steps in order, and the buffers share the mapped file
+	 * so nothing is copied.
+	 *
+	 * @return returns a read-only buffer of positions for each part of the route
+	 */
+	public IntBuffer[] getPositions() {
+		IntBuffer[] mapped = chunks();
+		IntBuffer[] views = new IntBuffer[mapped.length];
+		for (int i = 0; i < mapped.length; i++) {
+			views[i] = mapped[i].asReadOnlyBuffer();
+		}
+		return views;
+	}
+
+	/**
+	 * Method which stops reading the file. The mapping is released once nothing refers to it.
+	 */
+	public void close() {
+		chunks = null;
+	}
+
+	/**
+	 * Method which returns the mapped steps
+	 *
+	 * @return returns the mapped steps
+	 * @throws IllegalStateException thrown when the file has been closed
+	 */
+	private IntBuffer[] chunks() throws IllegalStateException {
+		if (chunks == null) {
+			throw new IllegalStateException("Step file has been closed");
+		}
+		return chunks;
+	}
+}
@@ -0,0 +1,210 @@
+package maze.routing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import maze.MazeStore;
+
+/**
+ * Class which keeps an append-only journal of the steps taken by a RouteFinder, so a long solve can be resumed
+ * after the process dies. The journal starts with a checkpoint, which is a snapshot of the route in the .route format,
+ * and is followed by one byte for each step saying what the step did: a move forward in a direction,
+ * a move onto the exit, a move back, or finishing.
+ * <p>
+ * The journal is forced to disk every few steps, so a crash loses at most the steps since then. Every so many steps
+ * a new journal starting with a fresh checkpoint is written next to the old one and renamed over it,
+ * so the journal never grows past one checkpoint and its tail, and resuming takes time in proportion to the tail.
+ * When the maze is kept in a store it is added once, as the journal starts, and every checkpoint refers to it by hash.
+ *
+ * @author Joshwin Sundarraj
+ */
+class StepJournal {
+
+	/**
+	 * Step which moved forward, the direction of the move being in the low two bits
+	 */
+	static final int FORWARD = 0x80;
+
+	/**
+	 * Step which moved onto the exit, the direction of the move being in the low two bits
+	 */
+	static final int EXIT = 0x84;
+
+	/**
+	 * Step which moved back along the route
+	 */
+	static final int BACKTRACK = 0x88;
+
+	/**
+	 * Step which found there is no route from the entrance
+	 */
+	static final int NO_ROUTE = 0x89;
+
+	/**
+	 * Step which added the exit to the route and finished
+	 */
+	static final int FINISH = 0x8C;
+
+	private static final int MAGIC = 0x4D5A4A00;
+	private static final short VERSION = 1;
+
+	private File file;
+	private RouteFinder finder;
+	private byte[] mazeHash;
+	private int syncInterval;
+	private int checkpointInterval;
+	private FileOutputStream fileOut;
+	private DataOutputStream out;
+	private int sinceSync;
+	private int sinceCheckpoint;
+
+	/**
+	 * Constructor which starts a journal with a checkpoint of the route as it is now
+	 *
+	 * @param s file path of the journal
+	 * @param finder_in the route being journalled
+	 * @param store_in the store to keep the maze in, or null to keep the maze in every checkpoint
+	 * @param syncInterval_in number of steps between forcing the journal to disk, at least one
+	 * @param checkpointInterval_in number of steps between checkpoints, at least one
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	StepJournal(String s, RouteFinder finder_in, MazeStore store_in, int syncInterval_in, int checkpointInterval_in)
+										throws IOException {
+		if (syncInterval_in < 1 || checkpointInterval_in < 1) {
+			throw new IllegalArgumentException("Journal intervals must be at least one step");
+		}
+		file = new File(s);
+		finder = finder_in;
+		mazeHash = store_in != null ? store_in.put(finder.getMaze()) : null;
+		syncInterval = syncInterval_in;
+		checkpointInterval = checkpointInterval_in;
+		checkpoint();
+	}
+
+	/**
+	 * Method which appends a step to the journal, forcing it to disk or writing a checkpoint when it is time to
+	 *
+	 * @param code what the step did
+	 * @throws UncheckedIOException thrown when the journal cannot be written
+	 */
+	void record(int code) throws UncheckedIOException {
+		try {
+			out.write(code);
+			if (++sinceCheckpoint >= checkpointInterval) {
+				checkpoint();
+			}
+			else if (++sinceSync >= syncInterval) {
+				sync();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Method which forces the steps written so far to disk
+	 *
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	void sync() throws IOException {
+		out.flush();
+		fileOut.getChannel().force(false);
+		sinceSync = 0;
+	}
+
+	/**
+	 * Method which forces the journal to disk and closes it
+	 *
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Method which replaces the journal with a new one starting with a checkpoint of the route as it is now.
+	 * The new journal is written and forced to disk beside the old one before it is renamed over it,
+	 * so a crash at any point leaves one whole journal. The directory is forced to disk after the rename,
+	 * since until then a crash can bring back the old journal, whose steps no longer follow on from the route.
+	 *
+	 * @throws IOException thrown when the journal cannot be written
+	 */
+	private void checkpoint() throws IOException {
+		if (out != null) {
+			close();
+		}
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		try (DataOutputStream snapshotOut = new DataOutputStream(snapshot)) {
+			finder.writeRoute(snapshotOut, true, mazeHash);
+		}
+		File temporary = new File(file.getPath() + ".tmp");
+		try (FileOutputStream tempOut = new FileOutputStream(temporary)) {
+			DataOutputStream data = new DataOutputStream(new BufferedOutputStream(tempOut, 1 << 16));
+			data.writeInt(MAGIC);
+			data.writeShort(VERSION);
+			data.writeInt(snapshot.size());
+			snapshot.writeTo(data);
+			data.flush();
+			tempOut.getChannel().force(false);
+		}
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		try (FileChannel directory = FileChannel.open(file.getAbsoluteFile().getParentFile().toPath(), StandardOpenOption.READ)) {
+			directory.force(true);
+		}
+		fileOut = new FileOutputStream(file, true);
+		out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 12));
+		sinceSync = 0;
+		sinceCheckpoint = 0;
+	}
+
+	/**
+	 * Method which checks whether a byte is one of the step codes
+	 *
+	 * @param code the byte read from the journal
+	 * @return returns true if the byte is a step
+	 */
+	static boolean isStep(int code) {
+		return (code & ~3) == FORWARD || (code & ~3) == EXIT || code == BACKTRACK || code == NO_ROUTE || code == FINISH;
+	}
+
+	/**
+	 * Method which rebuilds a route from a journal by loading its checkpoint and applying the steps after it.
+	 * Reading stops at the first byte which is not a step, or the first step which could not have followed
+	 * the ones before it, either of which is where a crash cut the journal short.
+	 *
+	 * @param s file path of the journal
+	 * @param store the store to find the maze in, or null if the checkpoint holds its own maze
+	 * @return returns the route as it was after the last step in the journal
+	 * @throws IOException thrown when the journal cannot be read or its checkpoint is not valid
+	 */
+	static RouteFinder resume(String s, MazeStore store) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(s), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+				throw new IOException("Not a step journal");
+			}
+			int checkpointLength = in.readInt();
+			RouteFinder finder = new RouteFinder();
+			finder.readRoute(in, checkpointLength, store);
+			int code;
+			while ((code = in.read()) != -1 && isStep(code) && finder.applyStep(code)) {
+				// Keep applying steps until the end of the journal
+			}
+			return finder;
+		}
+	}
+}
@@ -6,8 +6,12 @@ isStatic=$(java -cp bin tests/ModifierChecker)
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/CoordinateTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/DirectionTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/ExceptionTest.java
+javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/FormatTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/MazeTest.java
+javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/MazeValidatorTest.java
+javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/PipelineTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/RouteFinderTest.java
+javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/StorageTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/TileTest.java
 javac -d ./bin -cp .:junit-platform-console-standalone.jar ./tests/*/VisualisationTest.java
 
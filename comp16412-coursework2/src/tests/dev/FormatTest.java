@@ -0,0 +1,667 @@
+package tests.dev;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.MazeConverter;
+import maze.MazeStore;
+import maze.MultipleEntranceException;
+import maze.NoExitException;
+import maze.RaggedMazeException;
+import maze.Tile;
+import maze.routing.NoRouteFoundException;
+import maze.routing.RouteFinder;
+import maze.routing.StepFile;
+
+public class FormatTest {
+
+    private static final String[] MAZES = {"../mazes/maze1.txt", "../mazes/maze2.txt",
+                                           "../mazes/maze_test.txt", "../mazes/rooms.txt"};
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public Maze setupForMaze(String filename) {
+        Maze rtn = null;
+        try {
+            rtn = Maze.fromTxt(filename);
+        } catch (Exception e) { fail(e.getClass().getName() + ": " + e.getMessage()); }
+        return rtn;
+    }
+
+    public void assertSameMaze(Maze m1, Maze m2) {
+        assertEquals(m1.getWidth(), m2.getWidth());
+        assertEquals(m1.getHeight(), m2.getHeight());
+        assertEquals(m1.getCoordinate(m1.getEntranceIndex()), m2.getCoordinate(m2.getEntranceIndex()));
+        assertEquals(m1.getCoordinate(m1.getExitIndex()), m2.getCoordinate(m2.getExitIndex()));
+        assertEquals(m1.toString(), m2.toString());
+    }
+
+    private byte[] serialise(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialise(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private RouteFinder stepRoute(Maze maze, int steps) {
+        RouteFinder route = new RouteFinder(maze);
+        try {
+            for (int i = 0; i < steps && !route.step(); i++);
+        } catch (NoRouteFoundException e) { fail("No route"); }
+        return route;
+    }
+
+    private Maze parseInChunks(String text, Maze.Layout layout, long minLength, ForkJoinPool pool) throws Exception {
+        Method parseText = Maze.class.getDeclaredMethod("parseText", ByteBuffer[].class, Maze.Storage.class,
+                                                        Maze.Layout.class, long.class, ForkJoinPool.class);
+        parseText.setAccessible(true);
+        ByteBuffer[] contents = {ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII))};
+        try {
+            return (Maze) parseText.invoke(null, contents, Maze.Storage.PACKED, layout, minLength, pool);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private void resealHeader(byte[] bytes, int header) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, header, 29);
+        ByteBuffer.wrap(bytes).putInt(header + 29, (int) crc.getValue());
+    }
+
+    private File tempFile(String extension) throws IOException {
+        File file = File.createTempFile("maze", extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureBinaryRoundTripMatchesText() throws IOException {
+        for (String filename : MAZES) {
+            Maze maze = setupForMaze(filename);
+            File binary = tempFile(Maze.BINARY_EXTENSION);
+            maze.toBinary(binary.getPath());
+            assertSameMaze(maze, Maze.fromBinary(binary.getPath()));
+            assertSameMaze(maze, Maze.fromBinary(binary.getPath(), Maze.Storage.BITMAP, Maze.Layout.Z_ORDER));
+        }
+    }
+
+    @Test
+    public void ensureBinaryIsQuarterOfText() throws IOException {
+        Maze maze = setupForMaze("../mazes/maze_test.txt");
+        File binary = tempFile(Maze.BINARY_EXTENSION);
+        maze.toBinary(binary.getPath());
+        long text = new File("../mazes/maze_test.txt").length();
+        assertTrue(binary.length() + " bytes", binary.length() * 4 <= text + 4 * 22);
+    }
+
+    @Test
+    public void ensureTruncatedBinaryIsRejected() throws IOException {
+        File binary = tempFile(Maze.BINARY_EXTENSION);
+        setupForMaze("../mazes/maze2.txt").toBinary(binary.getPath());
+        try (RandomAccessFile file = new RandomAccessFile(binary, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertThrows(InvalidMazeException.class, () -> Maze.fromBinary(binary.getPath()));
+    }
+
+    @Test
+    public void ensureTextIsNotReadAsBinary() throws IOException {
+        File binary = tempFile(Maze.BINARY_EXTENSION);
+        Files.copy(new File("../mazes/maze1.txt").toPath(), binary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertThrows(InvalidMazeException.class, () -> Maze.fromBinary(binary.getPath()));
+    }
+
+    @Test
+    public void ensureRleRoundTripMatchesText() throws IOException {
+        for (String filename : MAZES) {
+            Maze maze = setupForMaze(filename);
+            for (String extension : new String[] {Maze.RLE_TEXT_EXTENSION, Maze.RLE_BINARY_EXTENSION}) {
+                File encoded = tempFile(extension);
+                maze.toRle(encoded.getPath());
+                assertSameMaze(maze, Maze.fromRle(encoded.getPath()));
+                assertSameMaze(maze, Maze.fromRle(encoded.getPath(), Maze.Storage.BITMAP, Maze.Layout.ROW_MAJOR));
+                assertSameMaze(maze, Maze.fromRle(encoded.getPath(), Maze.Storage.PACKED, Maze.Layout.Z_ORDER));
+            }
+        }
+    }
+
+    @Test
+    public void ensureRleTextIsReadable() throws IOException {
+        File encoded = tempFile(Maze.RLE_TEXT_EXTENSION);
+        Files.write(encoded.toPath(), "RLE 4 3\r\ne2.#\r\n##.#\r\n#x.#\r\n".getBytes(StandardCharsets.US_ASCII));
+        File text = tempFile(".txt");
+        Files.write(text.toPath(), "e..#\n##.#\n#x.#\n".getBytes(StandardCharsets.US_ASCII));
+        assertSameMaze(Maze.fromTxt(text.getPath()), Maze.fromRle(encoded.getPath()));
+    }
+
+    @Test
+    public void ensureRleRunPastRowIsRagged() throws IOException {
+        File encoded = tempFile(Maze.RLE_TEXT_EXTENSION);
+        Files.write(encoded.toPath(), "RLE 4 3\ne3.#\n##.#\n#x.#\n".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(RaggedMazeException.class, () -> Maze.fromRle(encoded.getPath()));
+    }
+
+    @Test
+    public void ensureRleKeepsEntranceRules() throws IOException {
+        File encoded = tempFile(Maze.RLE_TEXT_EXTENSION);
+        Files.write(encoded.toPath(), "RLE 4 3\ne2.#\n##.#\n#2.#\n".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(NoExitException.class, () -> Maze.fromRle(encoded.getPath()));
+        Files.write(encoded.toPath(), "RLE 4 3\n2e.#\n##.#\n#x.#\n".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(MultipleEntranceException.class, () -> Maze.fromRle(encoded.getPath()));
+    }
+
+    @Test
+    public void ensureRleShrinksLongRuns() throws IOException {
+        Maze maze = setupForMaze("../mazes/rooms.txt");
+        File encoded = tempFile(Maze.RLE_BINARY_EXTENSION);
+        maze.toRle(encoded.getPath());
+        assertTrue(encoded.length() + " bytes", encoded.length() * 4 < new File("../mazes/rooms.txt").length());
+    }
+
+    @Test
+    public void ensureStreamsMatchFile() throws IOException {
+        for (String filename : MAZES) {
+            Maze maze = setupForMaze(filename);
+            byte[] bytes = Files.readAllBytes(new File(filename).toPath());
+            assertSameMaze(maze, Maze.from(new ByteArrayInputStream(bytes)));
+            assertSameMaze(maze, Maze.from(Channels.newChannel(new ByteArrayInputStream(bytes))));
+            try (FileChannel channel = FileChannel.open(new File(filename).toPath())) {
+                assertSameMaze(maze, Maze.from(channel));
+            }
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 3);
+            direct.put(new byte[3]).put(bytes).position(3);
+            assertSameMaze(maze, Maze.from(direct));
+            assertEquals(3, direct.position());
+        }
+    }
+
+    @Test
+    public void ensureGzipIsDetected() throws IOException {
+        Maze maze = setupForMaze("../mazes/maze2.txt");
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(Files.readAllBytes(new File("../mazes/maze2.txt").toPath()));
+        }
+        assertSameMaze(maze, Maze.from(new ByteArrayInputStream(compressed.toByteArray())));
+        assertSameMaze(maze, Maze.from(ByteBuffer.wrap(compressed.toByteArray())));
+    }
+
+    @Test
+    public void ensureStreamsKeepMazeRules() {
+        assertThrows(EOFException.class, () -> Maze.from(new ByteArrayInputStream(new byte[0])));
+        assertThrows(RaggedMazeException.class,
+            () -> Maze.from(ByteBuffer.wrap("e.#\n.#\n..x\n".getBytes(StandardCharsets.US_ASCII))));
+        assertThrows(NoExitException.class,
+            () -> Maze.from(ByteBuffer.wrap("e.#\n..#\n...\n".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    public void ensureConverterConvertsDirectory() throws IOException {
+        File directory = Files.createTempDirectory("mazes").toFile();
+        File nested = new File(directory, "invalid");
+        nested.mkdir();
+        Files.copy(new File("../mazes/maze1.txt").toPath(), new File(directory, "maze1.txt").toPath());
+        Files.copy(new File("../mazes/invalid/ragged.txt").toPath(), new File(nested, "ragged.txt").toPath());
+        Files.copy(new File("../mazes/invalid/noRoute.txt").toPath(), new File(nested, "noRoute.txt").toPath());
+
+        assertEquals(2, MazeConverter.convertDirectory(directory));
+        File converted = new File(directory, "maze1" + Maze.BINARY_EXTENSION);
+        assertSameMaze(setupForMaze("../mazes/maze1.txt"), Maze.fromBinary(converted.getPath()));
+        assertFalse(new File(nested, "ragged" + Maze.BINARY_EXTENSION).exists());
+
+        for (File dir : new File[] {nested, directory}) {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void ensureSerialisedMazeMatches() throws Exception {
+        for (String filename : MAZES) {
+            for (Maze.Storage storage : new Maze.Storage[] {Maze.Storage.PACKED, Maze.Storage.BITMAP, Maze.Storage.QUADTREE}) {
+                for (Maze.Layout layout : Maze.Layout.values()) {
+                    Maze maze = Maze.fromTxt(filename, storage, layout);
+                    Maze read = (Maze) deserialise(serialise(maze));
+                    assertSameMaze(maze, read);
+                    for (int x = 0; x < maze.getWidth(); x++) {
+                        for (int y = 0; y < maze.getHeight(); y++) {
+                            assertEquals(maze.getNavigableMask(maze.getIndex(x, y)), read.getNavigableMask(read.getIndex(x, y)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ensureSerialisedEntranceKeepsIdentity() throws Exception {
+        Maze maze = setupForMaze("../mazes/maze1.txt");
+        Object[] read = (Object[]) deserialise(serialise(new Object[] {maze, maze.getEntrance(), maze.getExit()}));
+        Maze readMaze = (Maze) read[0];
+        assertSame(readMaze.getEntrance(), read[1]);
+        assertSame(readMaze.getExit(), read[2]);
+        Maze.Coordinate c = readMaze.getTileLocation(readMaze.getEntrance());
+        assertSame(readMaze.getEntrance(), readMaze.getTileAtLocation(c));
+        assertSame(Tile.Type.ENTRANCE, readMaze.getEntrance().getType());
+    }
+
+    @Test
+    public void ensureSerialisedMazeIsCompact() throws IOException {
+        Maze maze = setupForMaze("../mazes/maze_test.txt");
+        int length = serialise(maze).length;
+        assertTrue(length + " bytes", length * 10 < maze.getWidth() * maze.getHeight());
+    }
+
+    @Test
+    public void ensureSerialisedRegionHasNoEntrance() throws Exception {
+        Maze maze = setupForMaze("../mazes/maze_test.txt");
+        Maze region = maze.region(1, 1, 10, 10);
+        Maze read = (Maze) deserialise(serialise(region));
+        assertEquals(-1, read.getEntranceIndex());
+        assertEquals(-1, read.getExitIndex());
+        assertEquals(region.toString(), read.toString());
+    }
+
+    @Test
+    public void ensureSerialisedRegionKeepsItsEndpoints() throws Exception {
+        Maze maze = setupForMaze("../mazes/maze2.txt");
+        Maze region = maze.region(1, 2, 11, 3, new Maze.Coordinate(0, 1), new Maze.Coordinate(10, 1));
+        Maze read = (Maze) deserialise(serialise(region));
+        assertEquals(region.getCoordinate(region.getEntranceIndex()), read.getCoordinate(read.getEntranceIndex()));
+        assertEquals(region.getCoordinate(region.getExitIndex()), read.getCoordinate(read.getExitIndex()));
+        assertSame(Tile.Type.CORRIDOR, read.getCellType(read.getEntranceIndex()));
+        assertEquals(region.toString(), read.toString());
+        assertEquals(new RouteFinder(region).toString(), new RouteFinder(read).toString());
+    }
+
+    @Test
+    public void ensureRegionRouteFileCanBeLoaded() throws Exception {
+        Maze maze = setupForMaze("../mazes/maze2.txt");
+        RouteFinder route = stepRoute(maze.region(1, 2, 11, 3, new Maze.Coordinate(0, 1), new Maze.Coordinate(10, 1)), 6);
+        File file = tempFile(".route");
+        route.save(file.getPath());
+        assertEquals(route.toString(), RouteFinder.load(file.getPath()).toString());
+
+        RouteFinder walled = new RouteFinder(maze.region(1, 2, 11, 3, new Maze.Coordinate(0, 0), new Maze.Coordinate(10, 1)));
+        assertThrows(IOException.class, () -> walled.save(file.getPath()));
+    }
+
+    @Test
+    public void ensureRouteFileReplaysMoves() throws Exception {
+        for (int steps : new int[] {0, 1, 40, 200, Integer.MAX_VALUE}) {
+            RouteFinder route = stepRoute(setupForMaze("../mazes/rooms.txt"), steps);
+            File file = tempFile(".route");
+            route.save(file.getPath());
+            RouteFinder loaded = RouteFinder.load(file.getPath());
+            assertEquals(route.toString(), loaded.toString());
+            assertArrayEquals(route.getRouteDirections(), loaded.getRouteDirections());
+            assertEquals(route.isFinished(), loaded.isFinished());
+            for (int i = 0; i < 500 && !route.step(); i++) {
+                loaded.step();
+                assertEquals(route.toString(), loaded.toString());
+            }
+        }
+    }
+
+    @Test
+    public void ensureRouteFileWithoutExploredTilesIsCompact() throws Exception {
+        Maze maze = setupForMaze("../mazes/rooms.txt");
+        RouteFinder route = stepRoute(maze, Integer.MAX_VALUE);
+        File file = tempFile(".route");
+        route.save(file.getPath(), false);
+        RouteFinder loaded = RouteFinder.load(file.getPath());
+        assertArrayEquals(route.getRouteDirections(), loaded.getRouteDirections());
+        assertTrue(loaded.isFinished());
+
+        File binary = tempFile(Maze.BINARY_EXTENSION);
+        maze.toBinary(binary.getPath());
+        int moves = route.getRouteDirections().length;
+        assertTrue(file.length() + " bytes", file.length() <= binary.length() + 37 + (moves + 3) / 4);
+    }
+
+    @Test
+    public void ensureBrokenRouteFileIsRejected() throws Exception {
+        RouteFinder route = stepRoute(setupForMaze("../mazes/rooms.txt"), 100);
+        File file = tempFile(".route");
+        route.save(file.getPath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        Files.write(file.toPath(), java.util.Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> RouteFinder.load(file.getPath()));
+        bytes[0] = 0;
+        Files.write(file.toPath(), bytes);
+        assertThrows(IOException.class, () -> RouteFinder.load(file.getPath()));
+    }
+
+    @Test
+    public void ensureRouteSerialisesThroughExternalizable() throws Exception {
+        RouteFinder route = stepRoute(setupForMaze("../mazes/rooms.txt"), 60);
+        RouteFinder read = (RouteFinder) deserialise(serialise(route));
+        assertEquals(route.toString(), read.toString());
+        assertArrayEquals(route.getRouteDirections(), read.getRouteDirections());
+    }
+
+    @Test
+    public void ensureSerialisedRouteLengthsAreBounded() throws Exception {
+        byte[] bytes = serialise(stepRoute(setupForMaze("../mazes/rooms.txt"), 60));
+        int header = 0;
+        while (ByteBuffer.wrap(bytes).getInt(header) != 0x4D5A5000) header++;
+
+        // A route longer than the maze has cells, with moves to match
+        byte[] longRoute = bytes.clone();
+        ByteBuffer fields = ByteBuffer.wrap(longRoute);
+        fields.putInt(header + 13, 0x7FFFFFF0);
+        fields.putInt(header + 21, (0x7FFFFFF0 - 1 + 3) / 4);
+        resealHeader(longRoute, header);
+        IOException e = assertThrows(IOException.class, () -> deserialise(longRoute));
+        assertTrue(e.getMessage().contains("corrupt"));
+
+        // A maze section far longer than the stream
+        byte[] longMaze = bytes.clone();
+        ByteBuffer.wrap(longMaze).putInt(header + 17, 0x7FFFFFF0);
+        resealHeader(longMaze, header);
+        assertThrows(IOException.class, () -> deserialise(longMaze));
+    }
+
+    @Test
+    public void ensureDamagedRouteFileFailsChecksum() throws Exception {
+        RouteFinder route = stepRoute(setupForMaze("../mazes/rooms.txt"), 60);
+        File file = tempFile(".route");
+        route.save(file.getPath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        byte[] damaged = bytes.clone();
+        damaged[damaged.length - 8] ^= 1;
+        Files.write(file.toPath(), damaged);
+        IOException e = assertThrows(IOException.class, () -> RouteFinder.load(file.getPath()));
+        assertTrue(e.getMessage().contains("corrupt"));
+
+        damaged = bytes.clone();
+        damaged[17] = 0x7f;
+        Files.write(file.toPath(), damaged);
+        e = assertThrows(IOException.class, () -> RouteFinder.load(file.getPath()));
+        assertTrue(e.getMessage().contains("corrupt"));
+    }
+
+    @Test
+    public void ensureRoutesShareStoredMaze() throws Exception {
+        File directory = Files.createTempDirectory("store").toFile();
+        Maze maze = setupForMaze("../mazes/rooms.txt");
+        MazeStore store = new MazeStore(directory.getPath());
+        RouteFinder first = stepRoute(maze, 30);
+        RouteFinder second = stepRoute(maze, 80);
+        File firstFile = tempFile(".route");
+        File secondFile = tempFile(".route");
+        first.save(firstFile.getPath(), store);
+        second.save(secondFile.getPath(), store);
+        assertEquals(1, directory.listFiles().length);
+
+        File embedded = tempFile(".route");
+        first.save(embedded.getPath());
+        assertTrue(firstFile.length() + maze.getWidth() * maze.getHeight() / 8 < embedded.length());
+
+        MazeStore reopened = new MazeStore(directory.getPath());
+        RouteFinder firstLoaded = RouteFinder.load(firstFile.getPath(), reopened);
+        RouteFinder secondLoaded = RouteFinder.load(secondFile.getPath(), reopened);
+        RouteFinder embeddedLoaded = RouteFinder.load(embedded.getPath(), reopened);
+        assertSame(firstLoaded.getMaze(), secondLoaded.getMaze());
+        assertSame(firstLoaded.getMaze(), embeddedLoaded.getMaze());
+        assertEquals(first.toString(), firstLoaded.toString());
+        assertEquals(second.toString(), secondLoaded.toString());
+
+        for (File file : directory.listFiles()) file.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void ensureStoreKeepsContentNotSavedMaze() throws Exception {
+        File directory = Files.createTempDirectory("store").toFile();
+        MazeStore store = new MazeStore(directory.getPath());
+        File file = tempFile(".route");
+
+        Maze offHeap = Maze.fromTxt("../mazes/rooms.txt", Maze.Storage.OFF_HEAP);
+        RouteFinder route = stepRoute(offHeap, 30);
+        String expected = route.toString();
+        route.save(file.getPath(), store);
+        offHeap.close();
+        assertEquals(expected, RouteFinder.load(file.getPath(), store).toString());
+
+        Maze packed = setupForMaze("../mazes/rooms.txt");
+        route = stepRoute(packed, 30);
+        expected = route.toString();
+        route.save(file.getPath(), store);
+        packed.getTiles().get(0).set(0, new Tile(Tile.Type.CORRIDOR));
+        RouteFinder loaded = RouteFinder.load(file.getPath(), store);
+        assertEquals(expected, loaded.toString());
+        assertSame(Tile.Type.WALL, loaded.getMaze().getTiles().get(0).get(0).getType());
+
+        for (File stored : directory.listFiles()) stored.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void ensureReferencedRouteNeedsItsStore() throws Exception {
+        File directory = Files.createTempDirectory("store").toFile();
+        File file = tempFile(".route");
+        stepRoute(setupForMaze("../mazes/rooms.txt"), 30).save(file.getPath(), new MazeStore(directory.getPath()));
+        assertThrows(IOException.class, () -> RouteFinder.load(file.getPath()));
+
+        File empty = Files.createTempDirectory("store").toFile();
+        assertThrows(IOException.class, () -> RouteFinder.load(file.getPath(), new MazeStore(empty.getPath())));
+
+        for (File stored : directory.listFiles()) stored.delete();
+        directory.delete();
+        empty.delete();
+    }
+
+    @Test
+    public void ensureJournalResumesRoute() throws Exception {
+        File file = tempFile(".journal");
+        RouteFinder route = new RouteFinder(setupForMaze("../mazes/rooms.txt"));
+        route.journal(file.getPath(), null, 1, 40);
+        for (int i = 0; i < 97; i++) route.step();
+
+        // The journal is not closed, as if the process had died
+        RouteFinder resumed = RouteFinder.resume(file.getPath(), null);
+        assertEquals(route.toString(), resumed.toString());
+        assertEquals(route.getRoute().size(), resumed.getRoute().size());
+        boolean finished = false;
+        while (!finished) {
+            finished = route.step();
+            assertEquals(finished, resumed.step());
+            assertEquals(route.toString(), resumed.toString());
+        }
+        route.closeJournal();
+    }
+
+    @Test
+    public void ensureJournalIgnoresTornTail() throws Exception {
+        File file = tempFile(".journal");
+        File directory = Files.createTempDirectory("store").toFile();
+        MazeStore store = new MazeStore(directory.getPath());
+        RouteFinder route = new RouteFinder(setupForMaze("../mazes/rooms.txt"));
+        route.journal(file.getPath(), store, 1, 1000);
+        for (int i = 0; i < 50; i++) route.step();
+        route.closeJournal();
+        try (RandomAccessFile journal = new RandomAccessFile(file, "rw")) {
+            journal.setLength(journal.length() + 16);
+        }
+        assertEquals(route.toString(), RouteFinder.resume(file.getPath(), store).toString());
+
+        for (File stored : directory.listFiles()) stored.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void ensureJournalStopsAtStepWhichDoesNotFit() throws Exception {
+        File file = tempFile(".journal");
+        RouteFinder route = new RouteFinder(setupForMaze("../mazes/rooms.txt"));
+        route.journal(file.getPath(), null, 1, 1000);
+        for (int i = 0; i < 10; i++) route.step();
+        route.closeJournal();
+        assertFalse(route.isFinished());
+        // A torn tail which looks like a finish followed by more steps
+        Files.write(file.toPath(), new byte[] {(byte) 0x8C, (byte) 0x88, (byte) 0x80}, StandardOpenOption.APPEND);
+        assertEquals(route.toString(), RouteFinder.resume(file.getPath(), null).toString());
+    }
+
+    @Test
+    public void ensureStoredJournalCheckpointsResume() throws Exception {
+        File file = tempFile(".journal");
+        File directory = Files.createTempDirectory("store").toFile();
+        MazeStore store = new MazeStore(directory.getPath());
+        RouteFinder route = new RouteFinder(setupForMaze("../mazes/rooms.txt"));
+        route.journal(file.getPath(), store, 1, 5);
+        for (int i = 0; i < 32; i++) route.step();
+        route.closeJournal();
+        assertEquals(route.toString(), RouteFinder.resume(file.getPath(), store).toString());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        for (File stored : directory.listFiles()) stored.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void ensureFinishedJournalResumesFinished() throws Exception {
+        File file = tempFile(".journal");
+        RouteFinder route = new RouteFinder(setupForMaze("../mazes/rooms.txt"));
+        route.journal(file.getPath(), null, 10, 100000);
+        while (!route.step());
+        route.closeJournal();
+        RouteFinder resumed = RouteFinder.resume(file.getPath(), null);
+        assertTrue(resumed.isFinished());
+        assertEquals(route.getRoute().size(), resumed.getRoute().size());
+        assertEquals(route.toString(), resumed.toString());
+    }
+
+    @Test
+    public void ensureStepFileMatchesRoute() throws Exception {
+        Maze maze = setupForMaze("../mazes/rooms.txt");
+        RouteFinder route = stepRoute(maze, Integer.MAX_VALUE);
+        File file = tempFile(StepFile.EXTENSION);
+        route.saveSteps(file.getPath());
+        List<Tile> tiles = route.getRoute();
+        try (StepFile steps = new StepFile(file.getPath())) {
+            assertEquals(tiles.size(), steps.getStepCount());
+            assertTrue(steps.isFinished());
+            assertEquals(maze.getCoordinate(maze.getEntranceIndex()), steps.getCoordinate(0));
+            assertEquals(maze.getCoordinate(maze.getExitIndex()), steps.getCoordinate(tiles.size() - 1));
+            for (int k = tiles.size() - 1; k >= 0; k--) {
+                assertEquals(maze.getTileLocation(tiles.get(k)), steps.getCoordinate(k));
+            }
+            int[] visited = {0};
+            steps.forEach(3, tiles.size(), (k, x, y) -> {
+                assertEquals(steps.getCoordinate(k), new Maze.Coordinate(x, y));
+                visited[0]++;
+            });
+            assertEquals(tiles.size() - 3, visited[0]);
+            assertEquals(tiles.size(), steps.getPositions()[0].remaining());
+            assertThrows(IndexOutOfBoundsException.class, () -> steps.getCoordinate(tiles.size()));
+        }
+    }
+
+    @Test
+    public void ensureDamagedStepFileIsRejected() throws Exception {
+        File file = tempFile(StepFile.EXTENSION);
+        stepRoute(setupForMaze("../mazes/rooms.txt"), 10).saveSteps(file.getPath());
+        try (StepFile steps = new StepFile(file.getPath())) {
+            assertFalse(steps.isFinished());
+        }
+        try (RandomAccessFile damaged = new RandomAccessFile(file, "rw")) {
+            damaged.seek(9);
+            damaged.write(0x7F);
+        }
+        IOException e = assertThrows(IOException.class, () -> new StepFile(file.getPath()));
+        assertTrue(e.getMessage().contains("corrupt"));
+
+        File shortened = tempFile(StepFile.EXTENSION);
+        stepRoute(setupForMaze("../mazes/rooms.txt"), 10).saveSteps(shortened.getPath());
+        try (RandomAccessFile cut = new RandomAccessFile(shortened, "rw")) {
+            cut.setLength(cut.length() - 4);
+        }
+        assertThrows(IOException.class, () -> new StepFile(shortened.getPath()));
+        assertThrows(IOException.class, () -> new StepFile(tempFile(".route").getPath()));
+    }
+
+    @Test
+    public void ensureChunkedParseMatchesSequentialParse() throws Exception {
+        String text = new String(Files.readAllBytes(new File("../mazes/maze_test.txt").toPath()), StandardCharsets.US_ASCII);
+        int lineLength = text.indexOf('\n') + 1;
+        // Chunks are at least an eighth of the minimum length, so each nominal split falls halfway along a row
+        long minLength = 8L * (6 * lineLength + lineLength / 2);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Maze.Layout layout : Maze.Layout.values()) {
+                Maze sequential = Maze.fromTxt("../mazes/maze_test.txt", Maze.Storage.PACKED, layout);
+                Maze chunked = parseInChunks(text, layout, minLength, pool);
+                assertSameMaze(sequential, chunked);
+                for (int x = 0; x < sequential.getWidth(); x++) {
+                    for (int y = 0; y < sequential.getHeight(); y++) {
+                        int i = sequential.getIndex(x, y);
+                        assertEquals(sequential.getNavigableMask(i), chunked.getNavigableMask(chunked.getIndex(x, y)));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ensureChunkedParseReportsRaggedRowAtItsLine() throws Exception {
+        String text = new String(Files.readAllBytes(new File("../mazes/maze_test.txt").toPath()), StandardCharsets.US_ASCII);
+        int lineLength = text.indexOf('\n') + 1;
+        // Drop the first tile of line 40, which lies in the middle of the file rather than in its first chunk
+        int cut = 39 * lineLength;
+        String ragged = text.substring(0, cut) + text.substring(cut + 1);
+        File file = tempFile(".txt");
+        Files.write(file.toPath(), ragged.getBytes(StandardCharsets.US_ASCII));
+        RaggedMazeException expected = assertThrows(RaggedMazeException.class, () -> Maze.fromTxt(file.getPath()));
+        assertTrue(expected.getMessage(), expected.getMessage().endsWith("at line 40"));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RaggedMazeException e = assertThrows(RaggedMazeException.class,
+                    () -> parseInChunks(ragged, Maze.Layout.ROW_MAJOR, 8L * (6 * lineLength + lineLength / 2), pool));
+            assertEquals(expected.getMessage(), e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package tests.dev;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.MazeValidator;
+import maze.MultipleEntranceException;
+import maze.MultipleExitException;
+import maze.RaggedMazeException;
+
+public class MazeValidatorTest {
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    private void validateText(String text) throws IOException {
+        MazeValidator.validate(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private Class<?> loadFailure(String filename) {
+        try {
+            Maze.fromTxt(filename);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+        return null;
+    }
+
+    private Class<?> validateFailure(String filename) {
+        try {
+            MazeValidator.validate(filename);
+        } catch (Exception e) {
+            return e.getClass();
+        }
+        return null;
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureValidMazesPass() {
+        String[] files = {"../mazes/maze1.txt", "../mazes/maze2.txt", "../mazes/maze_test.txt",
+                          "../mazes/rooms.txt", "../mazes/invalid/noRoute.txt"};
+        for (String file : files) {
+            assertNull(file, validateFailure(file));
+        }
+    }
+
+    @Test
+    public void ensureSameExceptionAsFromTxt() {
+        String[] files = {"../mazes/invalid/invalidChar.txt", "../mazes/invalid/noEntrance.txt",
+                          "../mazes/invalid/noExit.txt", "../mazes/invalid/ragged.txt",
+                          "../mazes/doesNotExist.txt"};
+        for (String file : files) {
+            Class<?> expected = loadFailure(file);
+            assertNotNull(file, expected);
+            assertEquals(file, expected, validateFailure(file));
+        }
+    }
+
+    @Test
+    public void ensureShortRowReportsLineAndColumn() {
+        RaggedMazeException e = assertThrows(RaggedMazeException.class, () -> validateText("e..#\n##.#\n#x#\n"));
+        assertTrue(e.getMessage(), e.getMessage().endsWith("at line 3, column 4"));
+    }
+
+    @Test
+    public void ensureLongRowReportsLineAndColumn() {
+        RaggedMazeException e = assertThrows(RaggedMazeException.class, () -> validateText("e..#\r\n##.##\r\n#x.#"));
+        assertTrue(e.getMessage(), e.getMessage().endsWith("at line 2, column 5"));
+    }
+
+    @Test
+    public void ensureInvalidCharacterReportsLineAndColumn() {
+        InvalidMazeException e = assertThrows(InvalidMazeException.class, () -> validateText("e..#\n#?.#\n#x.#\n"));
+        assertTrue(e.getMessage(), e.getMessage().endsWith("at line 2, column 2"));
+    }
+
+    @Test
+    public void ensureSecondEntranceAndExitAreReported() {
+        MultipleEntranceException entrance = assertThrows(MultipleEntranceException.class,
+            () -> validateText("e..#\n##.#\n#xe#\n"));
+        assertTrue(entrance.getMessage(), entrance.getMessage().endsWith("at line 3, column 3"));
+        MultipleExitException exit = assertThrows(MultipleExitException.class,
+            () -> validateText("e..x\n##.#\n#x.#\n"));
+        assertTrue(exit.getMessage(), exit.getMessage().endsWith("at line 3, column 2"));
+    }
+
+    @Test
+    public void ensureEmptyStreamThrowsEOFException() {
+        assertThrows(EOFException.class, () -> validateText(""));
+    }
+
+}
@@ -0,0 +1,117 @@
+package tests.dev;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.Maze;
+import maze.MazeContainer;
+import maze.MazeConverter;
+import maze.Tile;
+import maze.routing.NoRouteFoundException;
+import maze.routing.RouteFinder;
+import maze.routing.SolvePipeline;
+
+public class PipelineTest {
+
+    private static final String[] MAZES = {"../mazes/maze1.txt", "../mazes/maze2.txt",
+                                           "../mazes/maze_test.txt", "../mazes/rooms.txt"};
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public Maze setupForMaze(String filename) {
+        Maze rtn = null;
+        try {
+            rtn = Maze.fromTxt(filename);
+        } catch (Exception e) { fail(e.getClass().getName() + ": " + e.getMessage()); }
+        return rtn;
+    }
+
+    private File tempFile(String extension) throws IOException {
+        File file = File.createTempFile("maze", extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private String expectedLine(int number, Maze maze) {
+        RouteFinder finder = new RouteFinder(maze);
+        try {
+            while (!finder.step()) {}
+        } catch (NoRouteFoundException e) {
+            return number + " none";
+        }
+        StringBuilder line = new StringBuilder(number + " " + finder.getRoute().size() + " ");
+        for (Maze.Direction d : finder.getRouteDirections()) line.append(d.name().charAt(0));
+        return line.toString();
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureContainerHoldsMazesInOrder() throws IOException {
+        File container = tempFile(MazeContainer.EXTENSION);
+        try (MazeContainer.Writer writer = new MazeContainer.Writer(container.getPath())) {
+            for (String filename : MAZES) writer.add(setupForMaze(filename));
+            assertEquals(MAZES.length, writer.getCount());
+        }
+        try (MazeContainer.Reader reader = new MazeContainer.Reader(container.getPath())) {
+            for (String filename : MAZES) {
+                Maze maze = reader.next();
+                assertNotNull(maze);
+                assertEquals(setupForMaze(filename).toString(), maze.toString());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void ensureRouteDirectionsFollowRoute() {
+        Maze maze = setupForMaze("../mazes/maze2.txt");
+        RouteFinder finder = new RouteFinder(maze);
+        while (!finder.step()) {}
+        List<Tile> route = finder.getRoute();
+        Maze.Direction[] moves = finder.getRouteDirections();
+        assertEquals(route.size() - 1, moves.length);
+        for (int i = 0; i < moves.length; i++) {
+            assertSame(route.get(i + 1), maze.getAdjacentTile(route.get(i), moves[i]));
+        }
+    }
+
+    @Test
+    public void ensurePipelineWritesEveryResultInOrder() throws Exception {
+        File container = tempFile(MazeContainer.EXTENSION);
+        int copies = 50;
+        try (MazeContainer.Writer writer = new MazeContainer.Writer(container.getPath())) {
+            for (int i = 0; i < copies; i++) writer.add(setupForMaze(MAZES[i % MAZES.length]));
+        }
+        File output = tempFile(".txt");
+        long solved = new SolvePipeline(3, 4).run(container.getPath(), output.getPath());
+
+        List<String> lines = Files.readAllLines(output.toPath());
+        assertEquals(copies, lines.size());
+        int expectedSolved = 0;
+        for (int i = 0; i < copies; i++) {
+            String expected = expectedLine(i, setupForMaze(MAZES[i % MAZES.length]));
+            assertEquals(expected, lines.get(i));
+            if (!expected.endsWith("none")) expectedSolved++;
+        }
+        assertEquals(expectedSolved, solved);
+    }
+
+    @Test
+    public void ensureConverterPacksDirectory() throws IOException {
+        File container = tempFile(MazeContainer.EXTENSION);
+        try (MazeContainer.Writer writer = new MazeContainer.Writer(container.getPath())) {
+            assertEquals(1, MazeConverter.packDirectory(new File("../mazes/invalid"), writer));
+        }
+        try (MazeContainer.Reader reader = new MazeContainer.Reader(container.getPath())) {
+            assertEquals(setupForMaze("../mazes/invalid/noRoute.txt").toString(), reader.next().toString());
+            assertNull(reader.next());
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -548,4 +549,34 @@ public class RouteFinderTest {
         }
     }
 
+    @Test
+    public void ensureRouteStackGrowsWithRoute() throws Exception {
+        // A corridor winding across every other row, so the route is longer than the stack starts out
+        StringBuilder text = new StringBuilder("#########################################\n");
+        for (int row = 1; row < 60; row++) {
+            if (row % 2 == 1) {
+                text.append(row == 1 ? 'e' : '#').append(".".repeat(39)).append(row == 59 ? 'x' : '#');
+            }
+            else {
+                text.append(row % 4 == 2 ? "#".repeat(39) + ".#" : "#." + "#".repeat(39));
+            }
+            text.append('\n');
+        }
+        text.append("#########################################\n");
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.toString().getBytes());
+        RouteFinder route = setupForMaze(file.getPath());
+        Field stack = RouteFinder.class.getDeclaredField("route");
+        stack.setAccessible(true);
+        int cells = route.getMaze().getWidth() * route.getMaze().getHeight();
+        assertTrue(((int[]) stack.get(route)).length < cells);
+
+        for (int i = 0; i < cells * 2; ++i) if (route.step()) break;
+        assertTrue(route.isFinished());
+        int length = ((int[]) stack.get(route)).length;
+        assertTrue(length >= route.getRoute().size());
+        assertTrue(length <= cells);
+    }
+
 }
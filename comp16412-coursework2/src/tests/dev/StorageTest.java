@@ -0,0 +1,396 @@
+package tests.dev;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.MazeReloader;
+import maze.MultipleEntranceException;
+import maze.NoExitException;
+import maze.RaggedMazeException;
+import maze.Tile;
+import maze.routing.NoRouteFoundException;
+import maze.routing.RouteFinder;
+
+public class StorageTest {
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public Maze setupForMaze(String filename, Maze.Storage storage) {
+        Maze rtn = null;
+        try {
+            rtn = Maze.fromTxt(filename, storage);
+        } catch (Exception e) { fail(e.getClass().getName() + ": " + e.getMessage()); }
+        return rtn;
+    }
+
+    public void assertSameCells(Maze m1, Maze m2) {
+        assertEquals(m1.getWidth(), m2.getWidth());
+        assertEquals(m1.getHeight(), m2.getHeight());
+        for (int x = 0; x < m1.getWidth(); x++) {
+            for (int y = 0; y < m1.getHeight(); y++) {
+                assertSame(m1.getCellType(m1.getIndex(x, y)), m2.getCellType(m2.getIndex(x, y)));
+            }
+        }
+        assertEquals(m1.getCoordinate(m1.getEntranceIndex()), m2.getCoordinate(m2.getEntranceIndex()));
+        assertEquals(m1.getCoordinate(m1.getExitIndex()), m2.getCoordinate(m2.getExitIndex()));
+        assertEquals(m1.toString(), m2.toString());
+    }
+
+    public String solve(Maze maze) {
+        RouteFinder route = new RouteFinder(maze);
+        try {
+            while (!route.step());
+        } catch (NoRouteFoundException e) {
+            return "No route\n" + route.toString();
+        }
+        return route.toString();
+    }
+
+    public void ensureStorageMatchesPacked(Maze.Storage storage) {
+        ensureStorageMatchesPacked(storage, Maze.Layout.ROW_MAJOR);
+    }
+
+    public void ensureStorageMatchesPacked(Maze.Storage storage, Maze.Layout layout) {
+        for (String filename : new String[] {"../mazes/maze1.txt", "../mazes/maze2.txt", "../mazes/maze_test.txt", "../mazes/rooms.txt"}) {
+            Maze packed = setupForMaze(filename, Maze.Storage.PACKED);
+            Maze other = null;
+            try {
+                other = Maze.fromTxt(filename, storage, layout);
+            } catch (Exception e) { fail(e.getClass().getName() + ": " + e.getMessage()); }
+            assertSameCells(packed, other);
+            assertEquals(solve(packed), solve(other));
+        }
+    }
+
+    private Maze loadText(String text) throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+        return Maze.fromTxt(file.getPath());
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureBitmapMatchesPacked() {
+        ensureStorageMatchesPacked(Maze.Storage.BITMAP);
+    }
+
+    @Test
+    public void ensureZOrderMatchesPacked() {
+        ensureStorageMatchesPacked(Maze.Storage.PACKED, Maze.Layout.Z_ORDER);
+        ensureStorageMatchesPacked(Maze.Storage.BITMAP, Maze.Layout.Z_ORDER);
+    }
+
+    @Test
+    public void ensureOffHeapMatchesPacked() {
+        ensureStorageMatchesPacked(Maze.Storage.OFF_HEAP);
+    }
+
+    @Test
+    public void ensureClosedOffHeapMazeCannotBeRead() {
+        Maze maze = setupForMaze("../mazes/maze1.txt", Maze.Storage.OFF_HEAP);
+        maze.close();
+        try {
+            maze.getCellType(0);
+            fail("Closed maze could still be read");
+        } catch (IllegalStateException e) {}
+    }
+
+    @Test
+    public void ensureQuadTreeMatchesPacked() {
+        ensureStorageMatchesPacked(Maze.Storage.QUADTREE);
+        ensureStorageMatchesPacked(Maze.Storage.QUADTREE, Maze.Layout.Z_ORDER);
+    }
+
+    @Test
+    public void ensureQuadTreeCollapsesOpenRoom() {
+        Maze maze = setupForMaze("../mazes/rooms.txt", Maze.Storage.QUADTREE);
+        int index = maze.getIndex(5, 10);
+        assertEquals(4, maze.getUniformBlockSide(index));
+        assertEquals(new Maze.Coordinate(4, 11), maze.getUniformBlockCorner(index));
+        assertEquals(1, maze.getUniformBlockSide(maze.getEntranceIndex()));
+        assertEquals(1, setupForMaze("../mazes/rooms.txt", Maze.Storage.PACKED).getUniformBlockSide(index));
+    }
+
+    @Test
+    public void ensurePagedMatchesPacked() {
+        ensureStorageMatchesPacked(Maze.Storage.PAGED);
+    }
+
+    @Test
+    public void ensurePagedCountsCacheMisses() {
+        Maze maze = setupForMaze("../mazes/maze_test.txt", Maze.Storage.PAGED);
+        maze.setPageCacheLimit(1);
+        long misses = maze.getPageCacheMisses();
+        solve(maze);
+        assertTrue(maze.getPageCacheHits() > 0);
+        assertEquals(misses, maze.getPageCacheMisses());
+        maze.close();
+    }
+
+    @Test
+    public void ensureRegionSharesCellsOfMaze() {
+        Maze maze = setupForMaze("../mazes/maze2.txt", Maze.Storage.PACKED);
+        Maze region = maze.region(2, 1, 8, 5);
+        assertEquals(8, region.getWidth());
+        assertEquals(5, region.getHeight());
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 5; y++) {
+                assertSame(
+                    maze.getCellType(maze.getIndex(x + 2, y + 1)),
+                    region.getCellType(region.getIndex(x, y))
+                );
+            }
+        }
+        assertEquals(-1, region.getEntranceIndex());
+    }
+
+    @Test
+    public void ensureRouteFinderSolvesRegion() {
+        Maze maze = setupForMaze("../mazes/maze2.txt", Maze.Storage.PACKED);
+        Maze region = maze.region(1, 2, 11, 3, new Maze.Coordinate(0, 1), new Maze.Coordinate(10, 1));
+        RouteFinder route = new RouteFinder(region);
+        for (int i = 0; i < 100; i++) if (route.step()) break;
+        assertTrue(route.isFinished());
+        for (Tile tile : route.getRoute()) {
+            assertTrue(tile.isNavigable());
+            assertNotNull(region.getTileLocation(tile));
+        }
+    }
+
+    @Test
+    public void ensureRegionIsReadOnly() {
+        Maze region = setupForMaze("../mazes/maze1.txt", Maze.Storage.PACKED).region(0, 0, 3, 3);
+        try {
+            region.getTiles().get(0).set(0, new Tile(Tile.Type.CORRIDOR));
+            fail("Region view could be written");
+        } catch (UnsupportedOperationException e) {}
+    }
+
+    @Test
+    public void ensureLoaderAcceptsEveryLineSeparator() throws IOException {
+        Maze expected = setupForMaze("../mazes/maze1.txt", Maze.Storage.PACKED);
+        String text = String.join("\r\n", Files.readAllLines(new File("../mazes/maze1.txt").toPath())) + "\r\n";
+        assertEquals(expected.toString(), loadText(text).toString());
+        assertEquals(expected.toString(), loadText(text.replace("\r\n", "\r")).toString());
+        assertEquals(expected.toString(), loadText(text.substring(0, text.length() - 2)).toString());
+    }
+
+    @Test
+    public void ensureLoaderReportsRaggedRowBeforeInvalidCharacter() {
+        assertThrows(RaggedMazeException.class, () -> loadText("e.#\n.?\n..x\n"));
+        assertThrows(InvalidMazeException.class, () -> loadText("e.#\n.?#\n..x\n"));
+    }
+
+    @Test
+    public void ensureOpenedMazeReadsOnlyTouchedRows() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        File index = new File(file.getPath() + ".idx");
+        file.deleteOnExit();
+        index.deleteOnExit();
+        Files.copy(new File("../mazes/maze_test.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        Maze opened = Maze.openTxt(file.getPath());
+        assertTrue(index.exists());
+        assertTrue(opened.getLoadedRowCount() <= 2);
+        opened.getCellType(opened.getIndex(5, opened.getHeight() / 2));
+        assertTrue(opened.getLoadedRowCount() <= 3);
+
+        Maze loaded = setupForMaze("../mazes/maze_test.txt", Maze.Storage.PACKED);
+        Maze reopened = Maze.openTxt(file.getPath());
+        assertSameCells(loaded, reopened);
+        assertEquals(solve(loaded), solve(reopened));
+        assertEquals(reopened.getHeight(), reopened.getLoadedRowCount());
+    }
+
+    @Test
+    public void ensureStaleIndexIsRebuilt() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        File index = new File(file.getPath() + ".idx");
+        file.deleteOnExit();
+        index.deleteOnExit();
+        Files.copy(new File("../mazes/maze1.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze.openTxt(file.getPath());
+
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file.setLastModified(file.lastModified() + 2000);
+        assertSameCells(setupForMaze("../mazes/maze2.txt", Maze.Storage.PACKED), Maze.openTxt(file.getPath()));
+
+        Files.copy(new File("../mazes/invalid/ragged.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file.setLastModified(file.lastModified() + 4000);
+        assertThrows(RaggedMazeException.class, () -> Maze.openTxt(file.getPath()));
+    }
+
+    @Test
+    public void ensureIndexIsCheckedAgainstFile() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        File index = new File(file.getPath() + ".idx");
+        file.deleteOnExit();
+        index.deleteOnExit();
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze.openTxt(file.getPath());
+
+        // Same size and modification time, but the entrance has moved
+        long modified = file.lastModified();
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), text.replace("e..#.#...#..#", "..e#.#...#..#").getBytes(StandardCharsets.US_ASCII));
+        file.setLastModified(modified);
+        assertSameCells(setupForMaze(file.getPath(), Maze.Storage.PACKED), Maze.openTxt(file.getPath()));
+
+        // Row offsets which run past the end of the file
+        try (RandomAccessFile sidecar = new RandomAccessFile(index, "rw")) {
+            sidecar.seek(48 + 8 * 3);
+            sidecar.writeLong(1L << 40);
+        }
+        assertSameCells(setupForMaze(file.getPath(), Maze.Storage.PACKED), Maze.openTxt(file.getPath()));
+
+        // Rows moved between the rows the index checks are found when they are read
+        modified = file.lastModified();
+        text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        int last = text.lastIndexOf("#...........#");
+        text = text.substring(0, last) + "#............#" + text.substring(last + 13);
+        Files.write(file.toPath(), text.replaceFirst("#\\.{11}#", "#..........#").getBytes(StandardCharsets.US_ASCII));
+        file.setLastModified(modified);
+        Maze opened = Maze.openTxt(file.getPath());
+        assertThrows(InvalidMazeException.class, () -> opened.getCellType(opened.getIndex(0, 2)));
+    }
+
+    @Test
+    public void ensureReloadPatchesOnlyChangedRows() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze maze = Maze.fromTxt(file.getPath());
+        MazeReloader reloader = new MazeReloader(file.getPath(), maze);
+        assertEquals(0, reloader.reload());
+
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        text = text.replace("e..#.#...#..#", "#.e#.#...#..#").replace("#...........#", "#.....#.....#");
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(3, reloader.reload());
+        assertSameCells(setupForMaze(file.getPath(), Maze.Storage.PACKED), maze);
+        assertEquals(solve(setupForMaze(file.getPath(), Maze.Storage.PACKED)), solve(maze));
+    }
+
+    @Test
+    public void ensureReloadRowsReadsOnlyGivenRows() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze maze = Maze.fromTxt(file.getPath());
+        MazeReloader reloader = new MazeReloader(file.getPath(), maze);
+
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), text.replace("#...........#", "#.....#.....#").getBytes(StandardCharsets.US_ASCII));
+        assertEquals(1, reloader.reloadRows(5, 1));
+        assertSame(Tile.Type.WALL, maze.getCellType(maze.getIndex(6, 3)));
+        assertSame(Tile.Type.CORRIDOR, maze.getCellType(maze.getIndex(6, 1)));
+        assertEquals(0, reloader.reloadRows(0, 5));
+        assertEquals(1, reloader.reloadRows(7, 2));
+        assertSameCells(setupForMaze(file.getPath(), Maze.Storage.PACKED), maze);
+        assertThrows(IndexOutOfBoundsException.class, () -> reloader.reloadRows(8, 2));
+    }
+
+    @Test
+    public void ensureReloadWaitsForReaders() throws Exception {
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze maze = Maze.fromTxt(file.getPath());
+        MazeReloader reloader = new MazeReloader(file.getPath(), maze);
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), text.replace("#...........#", "#.....#.....#").getBytes(StandardCharsets.US_ASCII));
+
+        int[] changed = new int[1];
+        Thread thread = new Thread(() -> {
+            try {
+                changed[0] = reloader.reload();
+            } catch (Exception e) { changed[0] = -1; }
+        });
+        reloader.readLock().lock();
+        try {
+            thread.start();
+            thread.join(200);
+            assertSame(Tile.Type.CORRIDOR, maze.getCellType(maze.getIndex(6, 3)));
+        } finally {
+            reloader.readLock().unlock();
+        }
+        thread.join();
+        assertEquals(2, changed[0]);
+        assertSame(Tile.Type.WALL, maze.getCellType(maze.getIndex(6, 3)));
+    }
+
+    @Test
+    public void ensureInvalidReloadLeavesMazeUnchanged() throws IOException {
+        File file = File.createTempFile("maze", ".txt");
+        file.deleteOnExit();
+        Files.copy(new File("../mazes/maze2.txt").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Maze maze = Maze.fromTxt(file.getPath());
+        MazeReloader reloader = new MazeReloader(file.getPath(), maze);
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+
+        Files.write(file.toPath(), text.replace("#...........#", "#.....e.....#").getBytes(StandardCharsets.US_ASCII));
+        assertThrows(MultipleEntranceException.class, () -> reloader.reload());
+        Files.write(file.toPath(), text.replace("x", "#").getBytes(StandardCharsets.US_ASCII));
+        assertThrows(NoExitException.class, () -> reloader.reload());
+        Files.write(file.toPath(), (text + "#############\n").getBytes(StandardCharsets.US_ASCII));
+        assertThrows(InvalidMazeException.class, () -> reloader.reload());
+        assertSameCells(setupForMaze("../mazes/maze2.txt", Maze.Storage.PACKED), maze);
+    }
+
+    @Test
+    public void ensureBitmapTilesViewWritesThrough() {
+        Maze maze = setupForMaze("../mazes/maze1.txt", Maze.Storage.BITMAP);
+        List<List<Tile>> tiles = maze.getTiles();
+        tiles.get(1).set(1, new Tile(Tile.Type.WALL));
+        assertSame(tiles.get(1).get(1).getType(), Tile.Type.WALL);
+        assertFalse(maze.isNavigable(maze.getIndex(1, 4)));
+    }
+
+    @Test
+    public void ensureNavigableMaskMatchesNeighbours() {
+        for (Maze.Layout layout : Maze.Layout.values()) {
+            for (Maze.Storage storage : new Maze.Storage[] {Maze.Storage.PACKED, Maze.Storage.BITMAP}) {
+                Maze maze = null;
+                try {
+                    maze = Maze.fromTxt("../mazes/maze_test.txt", storage, layout);
+                } catch (Exception e) { fail(e.getClass().getName() + ": " + e.getMessage()); }
+                for (int x = 0; x < maze.getWidth(); x++) {
+                    for (int y = 0; y < maze.getHeight(); y++) {
+                        int i = maze.getIndex(x, y);
+                        assertEquals(new Maze.Coordinate(x, y), maze.getCoordinate(i));
+                        int mask = maze.getNavigableMask(i);
+                        for (Maze.Direction d : Maze.Direction.values()) {
+                            int adj = maze.neighbour(i, d);
+                            boolean navigable = adj != -1 && maze.isNavigable(adj);
+                            assertEquals(navigable, (mask & (1 << d.ordinal())) != 0);
+                            if (adj != -1) {
+                                assertEquals(adj, maze.adjacentIndex(i, d));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ensureAdjacentTileEastAtBorderIsNull() {
+        Maze maze = setupForMaze("../mazes/maze2.txt", Maze.Storage.PACKED);
+        Tile exit = maze.getExit();
+        assertNull(maze.getAdjacentTile(exit, Maze.Direction.EAST));
+        assertSame(maze.getAdjacentTile(exit, Maze.Direction.WEST).getType(), Tile.Type.CORRIDOR);
+    }
+
+}